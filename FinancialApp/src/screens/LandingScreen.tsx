@@ -82,7 +82,7 @@ const LandingScreen: React.FC<LandingScreenProps> = ({
           text: 'Logout',
           style: 'destructive',
           onPress: async () => {
-            await apiService.removeStoredToken();
+            await apiService.logout();
             onLogout();
           },
         },
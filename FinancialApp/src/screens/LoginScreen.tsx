@@ -67,7 +67,7 @@ const LoginScreen: React.FC<LoginScreenProps> = ({ onNavigateToSignUp, onLoginSu
       });
       
       // Store the token
-      await apiService.storeToken(response.token);
+      await apiService.storeToken(response.token, response.refreshToken);
       
       setIsLoading(false);
       Alert.alert('Success', `Welcome back, ${response.username}!`);
@@ -89,7 +89,7 @@ const SignUpScreen: React.FC<SignUpScreenProps> = ({ onNavigateToLogin, onSignUp
       });
       
       // Store the token
-      await apiService.storeToken(response.token);
+      await apiService.storeToken(response.token, response.refreshToken);
       
       setIsLoading(false);
       Alert.alert(
@@ -43,6 +43,8 @@ export interface AuthResponse {
   email: string;
   username: string;
   phoneNumber?: string;
+  refreshToken?: string;
+  expiresIn?: number;
 }
 
 export interface ApiError {
@@ -77,6 +79,53 @@ export interface Transaction {
   occurredAt: string;
 }
 
+export interface CashFlowMonth {
+  month: string; // yyyy-MM
+  currency: string; // one row per month and currency
+  income: number;
+  expense: number;
+  net: number;
+}
+
+export interface CategoryTotal {
+  currency: string;
+  category: string;
+  amount: number;
+}
+
+export interface SavingsGoal {
+  id: number;
+  userId: number;
+  name: string;
+  targetAmount: number;
+  currentAmount: number;
+  deadline: string | null;
+  status: 'ACTIVE' | 'COMPLETED' | 'PAUSED';
+  accountId: number | null;
+  roundUp: boolean | null;
+}
+
+export interface SavingsGoalRequest {
+  name?: string;
+  targetAmount?: number;
+  deadline?: string;
+  status?: 'ACTIVE' | 'COMPLETED' | 'PAUSED';
+  accountId?: number;
+  roundUp?: boolean;
+}
+
+export interface BatchRequestItem {
+  method: 'GET' | 'POST' | 'PUT' | 'DELETE';
+  path: string; // e.g. '/transfers?page=0'
+  body?: unknown;
+}
+
+export interface BatchResponseItem<T = any> {
+  status: number;
+  headers?: Record<string, string>;
+  body: T;
+}
+
 class ApiService {
   private baseURL: string;
 
@@ -86,7 +135,8 @@ class ApiService {
 
   private async makeRequest<T>(
     endpoint: string,
-    options: RequestInit = {}
+    options: RequestInit = {},
+    retried: boolean = false
   ): Promise<T> {
     const url = `${this.baseURL}${endpoint}`;
     
@@ -110,6 +160,13 @@ class ApiService {
 
     try {
       const response = await fetch(url, config);
+
+      // Access tokens are short-lived: refresh once and retry
+      if (response.status === 401 && !retried && !endpoint.startsWith('/auth/')) {
+        if (await this.refreshSession()) {
+          return this.makeRequest<T>(endpoint, options, true);
+        }
+      }
       
       if (!response.ok) {
         const errorData = await response.text();
@@ -145,13 +202,59 @@ class ApiService {
     });
   }
 
+  // Swaps the stored refresh token for new tokens; clears them if it is no longer valid
+  async refreshSession(): Promise<boolean> {
+    const refreshToken = await this.getStoredRefreshToken();
+    if (!refreshToken) {
+      return false;
+    }
+    try {
+      const response = await fetch(`${this.baseURL}/auth/refresh`, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ refreshToken }),
+      });
+      if (!response.ok) {
+        await this.removeStoredToken();
+        return false;
+      }
+      const data: AuthResponse = await response.json();
+      await this.storeToken(data.token, data.refreshToken);
+      return true;
+    } catch (error) {
+      console.error('Token refresh failed:', error);
+      return false;
+    }
+  }
+
+  async logout(): Promise<void> {
+    const token = await this.getStoredToken();
+    const refreshToken = await this.getStoredRefreshToken();
+    try {
+      await fetch(`${this.baseURL}/auth/logout`, {
+        method: 'POST',
+        headers: {
+          'Content-Type': 'application/json',
+          ...(token ? { Authorization: `Bearer ${token}` } : {}),
+        },
+        body: JSON.stringify({ refreshToken }),
+      });
+    } catch (error) {
+      console.error('Logout request failed:', error);
+    }
+    await this.removeStoredToken();
+  }
+
   // Token management
-  async storeToken(token: string): Promise<void> {
+  async storeToken(token: string, refreshToken?: string): Promise<void> {
     // In a real app, you'd use secure storage like Expo SecureStore
     // For now, we'll use AsyncStorage
     try {
       const AsyncStorage = require('@react-native-async-storage/async-storage').default;
       await AsyncStorage.setItem('auth_token', token);
+      if (refreshToken) {
+        await AsyncStorage.setItem('refresh_token', refreshToken);
+      }
     } catch (error) {
       console.error('Failed to store token:', error);
     }
@@ -167,10 +270,21 @@ class ApiService {
     }
   }
 
+  async getStoredRefreshToken(): Promise<string | null> {
+    try {
+      const AsyncStorage = require('@react-native-async-storage/async-storage').default;
+      return await AsyncStorage.getItem('refresh_token');
+    } catch (error) {
+      console.error('Failed to get stored refresh token:', error);
+      return null;
+    }
+  }
+
   async removeStoredToken(): Promise<void> {
     try {
       const AsyncStorage = require('@react-native-async-storage/async-storage').default;
       await AsyncStorage.removeItem('auth_token');
+      await AsyncStorage.removeItem('refresh_token');
     } catch (error) {
       console.error('Failed to remove stored token:', error);
     }
@@ -203,6 +317,61 @@ class ApiService {
       method: 'GET',
     });
   }
+
+  // Analytics methods
+  async getCashFlow(from?: string, to?: string): Promise<CashFlowMonth[]> {
+    const params = new URLSearchParams();
+    if (from) params.append('from', from);
+    if (to) params.append('to', to);
+    const query = params.toString();
+    return this.makeRequest<CashFlowMonth[]>(`/analytics/cashflow${query ? `?${query}` : ''}`, {
+      method: 'GET',
+    });
+  }
+
+  async getCategoryBreakdown(from?: string, to?: string, type: 'DEBIT' | 'CREDIT' = 'DEBIT'): Promise<CategoryTotal[]> {
+    const params = new URLSearchParams({ type });
+    if (from) params.append('from', from);
+    if (to) params.append('to', to);
+    return this.makeRequest<CategoryTotal[]>(`/analytics/categories?${params.toString()}`, {
+      method: 'GET',
+    });
+  }
+
+  // Savings goal methods
+  async getSavingsGoals(): Promise<SavingsGoal[]> {
+    return this.makeRequest<SavingsGoal[]>('/savings-goals', {
+      method: 'GET',
+    });
+  }
+
+  async createSavingsGoal(goal: SavingsGoalRequest): Promise<{ success: boolean; message: string; goal: SavingsGoal }> {
+    return this.makeRequest<{ success: boolean; message: string; goal: SavingsGoal }>('/savings-goals', {
+      method: 'POST',
+      body: JSON.stringify(goal),
+    });
+  }
+
+  async updateSavingsGoal(id: number, goal: SavingsGoalRequest): Promise<{ success: boolean; message: string; goal: SavingsGoal }> {
+    return this.makeRequest<{ success: boolean; message: string; goal: SavingsGoal }>(`/savings-goals/${id}`, {
+      method: 'PUT',
+      body: JSON.stringify(goal),
+    });
+  }
+
+  async deleteSavingsGoal(id: number): Promise<{ success: boolean; message: string }> {
+    return this.makeRequest<{ success: boolean; message: string }>(`/savings-goals/${id}`, {
+      method: 'DELETE',
+    });
+  }
+
+  // Several calls in one round trip; responses come back in the same order
+  async batch(requests: BatchRequestItem[]): Promise<BatchResponseItem[]> {
+    return this.makeRequest<BatchResponseItem[]>('/batch', {
+      method: 'POST',
+      body: JSON.stringify(requests),
+    });
+  }
 }
 
 export const apiService = new ApiService();
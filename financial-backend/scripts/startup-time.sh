@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Measures time from JVM launch to the first 200 from /api/auth/test.
+#
+#   scripts/startup-time.sh default   # after: mvn package
+#   scripts/startup-time.sh fast      # after: mvn -Pfast-startup package
+#
+# RUNS (default 5) sets the number of launches; the median is reported.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+MODE="${1:-default}"
+RUNS="${RUNS:-5}"
+URL="${URL:-http://localhost:8080/api/auth/test}"
+JAR=target/financial-backend-0.0.1-SNAPSHOT.jar
+
+case "$MODE" in
+  default)
+    CMD=(java -jar "$JAR")
+    ;;
+  fast)
+    CMD=(java -XX:SharedArchiveFile=target/app.jsa -Dspring.aot.enabled=true -jar "$JAR")
+    ;;
+  *)
+    echo "usage: $0 default|fast" >&2
+    exit 1
+    ;;
+esac
+
+now_ms() { date +%s%3N; }
+
+results=()
+for ((i = 1; i <= RUNS; i++)); do
+  start=$(now_ms)
+  "${CMD[@]}" > "target/startup-$MODE-$i.log" 2>&1 &
+  pid=$!
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)" = "200" ]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "application exited, see target/startup-$MODE-$i.log" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( $(now_ms) - start ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "run $i: ${elapsed} ms"
+  results+=("$elapsed")
+done
+
+median=$(printf '%s\n' "${results[@]}" | sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }')
+echo "$MODE: median time to first 200 over $RUNS runs: ${median} ms"
@@ -33,10 +33,20 @@ CREATE TABLE IF NOT EXISTS accounts (
     type VARCHAR(30) NOT NULL, -- e.g., CHECKING, SAVINGS, CREDIT
     currency VARCHAR(10) NOT NULL DEFAULT 'EGP',
     balance NUMERIC(14,2) NOT NULL DEFAULT 0,
+    hot_slots INT NOT NULL DEFAULT 0, -- > 0 spreads incoming credits over account_balance_slots
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 CREATE INDEX IF NOT EXISTS idx_accounts_user_id ON accounts(user_id);
 
+-- Striped sub-balances for hot accounts, folded back into accounts.balance
+CREATE TABLE IF NOT EXISTS account_balance_slots (
+    id BIGSERIAL PRIMARY KEY,
+    account_id BIGINT NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    slot INT NOT NULL,
+    balance NUMERIC(14,2) NOT NULL DEFAULT 0,
+    UNIQUE (account_id, slot)
+);
+
 -- Transactions (for the Transactions screen and balance history)
 CREATE TABLE IF NOT EXISTS transactions (
     id BIGSERIAL PRIMARY KEY,
@@ -49,6 +59,7 @@ CREATE TABLE IF NOT EXISTS transactions (
     occurred_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 CREATE INDEX IF NOT EXISTS idx_transactions_user_id ON transactions(user_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_id_id ON transactions(user_id, id); -- keyset scans of one user's rows
 CREATE INDEX IF NOT EXISTS idx_transactions_account_id ON transactions(account_id);
 CREATE INDEX IF NOT EXISTS idx_transactions_occurred_at ON transactions(occurred_at);
 
@@ -78,6 +89,23 @@ CREATE TABLE IF NOT EXISTS budgets (
 CREATE UNIQUE INDEX IF NOT EXISTS uq_budgets_user_cat_month_year
   ON budgets(user_id, category, month, year);
 
+-- Budget thresholds already notified, so each one is notified once
+CREATE TABLE IF NOT EXISTS budget_alerts (
+    budget_id BIGINT NOT NULL REFERENCES budgets(id) ON DELETE CASCADE,
+    threshold INT NOT NULL, -- percent of monthly_limit
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE, -- the budget's user, so shard moves take it along
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (budget_id, threshold)
+);
+DO $$ BEGIN
+  IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                 WHERE table_schema = current_schema() AND table_name = 'budget_alerts' AND column_name = 'user_id') THEN
+    ALTER TABLE budget_alerts ADD COLUMN user_id BIGINT REFERENCES users(id) ON DELETE CASCADE;
+    UPDATE budget_alerts a SET user_id = b.user_id FROM budgets b WHERE b.id = a.budget_id;
+    ALTER TABLE budget_alerts ALTER COLUMN user_id SET NOT NULL;
+  END IF;
+END $$;
+
 -- Savings Goals (for the Savings Goals screen)
 CREATE TABLE IF NOT EXISTS savings_goals (
     id BIGSERIAL PRIMARY KEY,
@@ -86,7 +114,9 @@ CREATE TABLE IF NOT EXISTS savings_goals (
     target_amount NUMERIC(14,2) NOT NULL,
     current_amount NUMERIC(14,2) NOT NULL DEFAULT 0,
     deadline DATE,
-    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE' -- ACTIVE, COMPLETED, PAUSED
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE', -- ACTIVE, COMPLETED, PAUSED
+    account_id BIGINT REFERENCES accounts(id) ON DELETE SET NULL, -- holds the saved money
+    round_up BOOLEAN NOT NULL DEFAULT FALSE -- spare change of purchases is swept in
 );
 CREATE INDEX IF NOT EXISTS idx_savings_goals_user_id ON savings_goals(user_id);
 
@@ -107,14 +137,127 @@ CREATE INDEX IF NOT EXISTS idx_notifications_created_at ON notifications(created
 CREATE TABLE IF NOT EXISTS transfers (
     id BIGSERIAL PRIMARY KEY,
     user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    from_account_id BIGINT REFERENCES accounts(id) ON DELETE SET NULL,
-    to_account_id BIGINT REFERENCES accounts(id) ON DELETE SET NULL,
+    from_account_id BIGINT, -- no foreign keys: with sharding either account may live on another shard
+    to_account_id BIGINT,
     amount NUMERIC(14,2) NOT NULL,
+    converted_amount NUMERIC(14,2), -- credited amount when currencies differ
+    fx_rate NUMERIC(18,8),
     description VARCHAR(255),
+    status VARCHAR(20) DEFAULT 'COMPLETED', -- PENDING while a cross-shard transfer is in flight
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 CREATE INDEX IF NOT EXISTS idx_transfers_user_id ON transfers(user_id);
 CREATE INDEX IF NOT EXISTS idx_transfers_created_at ON transfers(created_at);
+CREATE INDEX IF NOT EXISTS idx_transfers_from_account_id ON transfers(from_account_id);
+CREATE INDEX IF NOT EXISTS idx_transfers_to_account_id ON transfers(to_account_id);
+ALTER TABLE transfers DROP CONSTRAINT IF EXISTS transfers_from_account_id_fkey;
+ALTER TABLE transfers DROP CONSTRAINT IF EXISTS transfers_to_account_id_fkey;
+
+-- Credit side of a cross-shard transfer, on the destination account's shard.
+-- The transfer itself stays on the sender's shard; whichever of the saga and
+-- the reconciler inserts this row first decides whether the credit happened.
+CREATE TABLE IF NOT EXISTS transfer_credits (
+    transfer_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE, -- owner of the credited account
+    account_id BIGINT NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    from_account_id BIGINT,
+    amount NUMERIC(14,2) NOT NULL,
+    converted_amount NUMERIC(14,2),
+    fx_rate NUMERIC(18,8),
+    description VARCHAR(255),
+    status VARCHAR(20) NOT NULL, -- CREDITED, or VOIDED when the transfer was refunded instead
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_transfer_credits_user_id ON transfer_credits(user_id);
+CREATE INDEX IF NOT EXISTS idx_transfer_credits_account_id ON transfer_credits(account_id);
+
+-- Refresh tokens, stored as SHA-256 hashes and rotated on every use
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    family_id VARCHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    revoked_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON refresh_tokens(family_id);
+
+-- Revoked access tokens until they expire (shard 0 only)
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at);
+
+-- Per-user data version behind the ETags of conditional GETs
+CREATE TABLE IF NOT EXISTS data_versions (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- Per-user change log for delta sync (GET /sync)
+CREATE TABLE IF NOT EXISTS change_log_heads (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    last_seq BIGINT NOT NULL DEFAULT 0,
+    pruned_through BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS change_log (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    seq BIGINT NOT NULL,
+    entity VARCHAR(20) NOT NULL, -- ACCOUNT, TRANSACTION, TRANSFER
+    entity_id BIGINT NOT NULL,
+    op VARCHAR(10) NOT NULL, -- UPSERT; the API never deletes synced rows
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, seq)
+);
+CREATE INDEX IF NOT EXISTS idx_change_log_changed_at ON change_log(changed_at);
+
+-- Users pinned to a shard other than their hash-ring shard (shard 0 only)
+CREATE TABLE IF NOT EXISTS shard_overrides (
+    user_id BIGINT PRIMARY KEY,
+    shard INT NOT NULL
+);
+
+-- Keyword rules for categorizing transactions from their description (shard 0 only)
+CREATE TABLE IF NOT EXISTS category_rules (
+    id BIGSERIAL PRIMARY KEY,
+    keyword VARCHAR(100) NOT NULL UNIQUE, -- matched case-insensitively anywhere in the description
+    category VARCHAR(50) NOT NULL,
+    priority INT NOT NULL DEFAULT 0 -- higher wins when several keywords match
+);
+
+-- Append-only audit trail; each row hashes the previous row's hash (shard 0 only)
+CREATE TABLE IF NOT EXISTS audit_log (
+    seq BIGINT PRIMARY KEY,
+    occurred_at TIMESTAMPTZ NOT NULL, -- an instant, so the hash chain verifies in any server or JVM time zone
+    event_type VARCHAR(30) NOT NULL, -- SIGNIN, SIGNIN_FAILED, SIGNUP, SIGNUP_FAILED, TRANSFER, TRANSFER_FAILED
+    user_id BIGINT,
+    subject VARCHAR(120),
+    details VARCHAR(500),
+    prev_hash CHAR(64) NOT NULL,
+    hash CHAR(64) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS audit_chain_head (
+    id INT PRIMARY KEY,
+    last_seq BIGINT NOT NULL,
+    last_hash CHAR(64) NOT NULL
+);
+INSERT INTO audit_chain_head (id, last_seq, last_hash) VALUES (1, 0, repeat('0', 64))
+ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION audit_log_append_only() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'audit_log is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS audit_log_append_only ON audit_log;
+CREATE TRIGGER audit_log_append_only BEFORE UPDATE OR DELETE OR TRUNCATE ON audit_log
+    FOR EACH STATEMENT EXECUTE FUNCTION audit_log_append_only();
 
 -- User Settings (for the Settings screen)
 CREATE TABLE IF NOT EXISTS user_settings (
@@ -154,6 +297,18 @@ SELECT u.id, a.id, 'CREDIT', 'Income', 91500.00, 'Monthly salary', NOW() - INTER
 FROM users u JOIN accounts a ON a.user_id = u.id AND a.name = 'Checking'
 WHERE u.email = 'test@example.com';
 
+-- Category rules
+INSERT INTO category_rules (keyword, category, priority) VALUES
+    ('uber', 'Transport', 0),
+    ('careem', 'Transport', 0),
+    ('whole foods', 'Groceries', 0),
+    ('carrefour', 'Groceries', 0),
+    ('salary', 'Income', 0),
+    ('netflix', 'Entertainment', 0),
+    ('starbucks', 'Dining', 0),
+    ('uber eats', 'Dining', 1)
+ON CONFLICT (keyword) DO NOTHING;
+
 -- Bills
 INSERT INTO bills (user_id, name, amount, due_date, status, recurrence)
 SELECT id, 'Electricity', 1830.00, (CURRENT_DATE + INTERVAL '7 days')::date, 'PENDING', 'MONTHLY' FROM users WHERE email = 'test@example.com';
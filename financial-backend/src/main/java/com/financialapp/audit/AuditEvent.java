@@ -0,0 +1,35 @@
+package com.financialapp.audit;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One entry of the audit trail. The timestamp is cut to microseconds, the
+ * precision PostgreSQL stores, so the hash chain can be recomputed from
+ * the table.
+ */
+public record AuditEvent(String type, Long userId, String subject, String details, Instant occurredAt) {
+
+    public static final String SIGNIN = "SIGNIN";
+    public static final String SIGNIN_FAILED = "SIGNIN_FAILED";
+    public static final String SIGNUP = "SIGNUP";
+    public static final String SIGNUP_FAILED = "SIGNUP_FAILED";
+    public static final String TRANSFER = "TRANSFER";
+    public static final String TRANSFER_FAILED = "TRANSFER_FAILED";
+
+    public static AuditEvent of(String type, Long userId, String subject, String details) {
+        return new AuditEvent(type, userId, truncate(subject, 120), truncate(details, 500),
+                Instant.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    /** Canonical form covered by the row's hash */
+    String canonical() {
+        return type + '|' + (userId != null ? userId : "") + '|' + (subject != null ? subject : "") + '|'
+                + (details != null ? details : "") + '|' + occurredAt;
+    }
+
+    // Cut to the column sizes up front so that the stored row matches what was hashed
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+}
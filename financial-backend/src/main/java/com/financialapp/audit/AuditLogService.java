@@ -0,0 +1,293 @@
+package com.financialapp.audit;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit trail of sign-ins, sign-ups and transfers. Callers
+ * drop events into a bounded lock-free ring and a single writer thread
+ * inserts them in batches into {@code audit_log} on shard 0, where each
+ * row carries the SHA-256 of the previous row's hash and its own content.
+ * Rows cannot be updated or deleted (a trigger rejects it), and
+ * {@link #verify()} recomputes the chain.
+ *
+ * <p>When the ring is full a caller waits up to {@code audit.max-wait-ms}
+ * and is then refused, so that audited work is turned away rather than
+ * done without a record. Slots can be reserved before the work starts for
+ * that reason. On shutdown new events are refused and the ring is drained.
+ */
+@Service
+public class AuditLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
+
+    private static final String GENESIS_HASH = "0".repeat(64);
+
+    private static final String INSERT_SQL = "INSERT INTO audit_log "
+            + "(seq, occurred_at, event_type, user_id, subject, details, prev_hash, hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.buffer-size}")
+    private int bufferSize;
+
+    @Value("${audit.batch-size}")
+    private int batchSize;
+
+    @Value("${audit.max-wait-ms}")
+    private long maxWaitMs;
+
+    @Value("${audit.shutdown-timeout-ms}")
+    private long shutdownTimeoutMs;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean accepting = new AtomicBoolean(true);
+
+    private AuditRingBuffer ring;
+
+    private Thread writer;
+
+    private volatile boolean stopping;
+
+    private Counter written;
+    private Counter rejected;
+    private Timer batchTimer;
+
+    public AuditLogService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Not mapped as entities, so Hibernate's schema update does not create them
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_log (seq BIGINT PRIMARY KEY, "
+                + "occurred_at TIMESTAMPTZ NOT NULL, event_type VARCHAR(30) NOT NULL, user_id BIGINT, "
+                + "subject VARCHAR(120), details VARCHAR(500), prev_hash CHAR(64) NOT NULL, hash CHAR(64) NOT NULL)");
+        // Tables created before occurred_at had a zone hold JVM-local times; the session zone is the JVM's
+        jdbcTemplate.execute("DO $$ BEGIN IF EXISTS (SELECT 1 FROM information_schema.columns "
+                + "WHERE table_schema = current_schema() AND table_name = 'audit_log' AND column_name = 'occurred_at' "
+                + "AND data_type = 'timestamp without time zone') "
+                + "THEN ALTER TABLE audit_log ALTER COLUMN occurred_at TYPE TIMESTAMPTZ; END IF; END $$");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_chain_head (id INT PRIMARY KEY, "
+                + "last_seq BIGINT NOT NULL, last_hash CHAR(64) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO audit_chain_head (id, last_seq, last_hash) VALUES (1, 0, ?) "
+                + "ON CONFLICT (id) DO NOTHING", GENESIS_HASH);
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION audit_log_append_only() RETURNS trigger AS $$ "
+                + "BEGIN RAISE EXCEPTION 'audit_log is append-only'; END; $$ LANGUAGE plpgsql");
+        jdbcTemplate.execute("DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'audit_log_append_only') "
+                + "THEN CREATE TRIGGER audit_log_append_only BEFORE UPDATE OR DELETE OR TRUNCATE ON audit_log "
+                + "FOR EACH STATEMENT EXECUTE FUNCTION audit_log_append_only(); END IF; END $$");
+
+        ring = new AuditRingBuffer(bufferSize);
+        written = meterRegistry.counter("audit.events.written");
+        rejected = meterRegistry.counter("audit.events.rejected");
+        batchTimer = meterRegistry.timer("audit.batch.write");
+        Gauge.builder("audit.buffer.pending", ring, AuditRingBuffer::pending).register(meterRegistry);
+
+        writer = new Thread(this::drainLoop, "audit-writer");
+        writer.start();
+    }
+
+    /**
+     * Reserves a slot for an event that will be published once the audited
+     * work finishes. The slot must be published exactly once; one that
+     * never is keeps holding capacity, and shutdown waits for it until
+     * audit.shutdown-timeout-ms.
+     *
+     * @throws RuntimeException if no slot frees up within audit.max-wait-ms
+     */
+    public Slot reserve() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (accepting.get()) {
+            if (ring.tryReserve()) {
+                return new Slot();
+            }
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        rejected.increment();
+        throw new RuntimeException("Audit log is busy, please retry later");
+    }
+
+    public void record(AuditEvent event) {
+        reserve().publish(event);
+    }
+
+    /**
+     * Recomputes the hash chain over the whole table.
+     *
+     * @return the sequence number of the first row that does not match, or -1 if the chain is intact
+     */
+    public long verify() {
+        long[] firstBroken = {-1};
+        String[] previous = {GENESIS_HASH};
+        long[] expectedSeq = {1};
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        try (ShardContext.Scope ignored = shardRouter.bindShard(0)) {
+            // A fetch size inside a transaction makes the driver stream rows instead of loading the table
+            JdbcTemplate streaming = new JdbcTemplate(dataSource);
+            streaming.setFetchSize(1000);
+            readOnly.executeWithoutResult(status -> streaming.query("SELECT seq, occurred_at, event_type, user_id, subject, details, prev_hash, hash "
+                    + "FROM audit_log ORDER BY seq", rs -> {
+                if (firstBroken[0] >= 0) {
+                    return;
+                }
+                long seq = rs.getLong(1);
+                Long userId = rs.getObject(4) != null ? rs.getLong(4) : null;
+                AuditEvent event = new AuditEvent(rs.getString(3), userId, rs.getString(5), rs.getString(6),
+                        rs.getObject(2, OffsetDateTime.class).toInstant());
+                String hash = hash(previous[0], seq, event);
+                if (seq != expectedSeq[0] || !previous[0].equals(rs.getString(7)) || !hash.equals(rs.getString(8))) {
+                    firstBroken[0] = seq;
+                    return;
+                }
+                previous[0] = hash;
+                expectedSeq[0] = seq + 1;
+            }));
+        }
+        return firstBroken[0];
+    }
+
+    /** Refuses new events and waits for the writer to store the ones already taken */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting.set(false);
+        stopping = true;
+        LockSupport.unpark(writer);
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            logger.error("Audit writer did not drain within {} ms; {} events were not written",
+                    shutdownTimeoutMs, ring.pending());
+            writer.interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long backoffMs = 100;
+        while (!(stopping && ring.pending() == 0) && !Thread.currentThread().isInterrupted()) {
+            batch.clear();
+            int count = ring.peek(batch, batchSize);
+            if (count == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            try {
+                long start = System.nanoTime();
+                writeBatch(batch);
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                ring.release(count);
+                backoffMs = 100;
+            } catch (RuntimeException e) {
+                // Keep the batch in the ring and try again; producers feel it once the ring fills
+                logger.error("Could not write {} audit events, retrying in {} ms: {}", count, backoffMs, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs));
+                backoffMs = Math.min(backoffMs * 2, 5_000);
+            }
+        }
+    }
+
+    // The head row lock orders batches from every instance into one chain
+    private void writeBatch(List<AuditEvent> batch) {
+        try (ShardContext.Scope ignored = shardRouter.bindShard(0)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Object> head = jdbcTemplate.queryForMap(
+                        "SELECT last_seq, last_hash FROM audit_chain_head WHERE id = 1 FOR UPDATE");
+                long seq = ((Number) head.get("last_seq")).longValue();
+                String previous = (String) head.get("last_hash");
+
+                List<Object[]> rows = new ArrayList<>(batch.size());
+                for (AuditEvent event : batch) {
+                    seq++;
+                    String hash = hash(previous, seq, event);
+                    rows.add(new Object[]{seq, event.occurredAt().atOffset(ZoneOffset.UTC), event.type(),
+                            event.userId(), event.subject(), event.details(), previous, hash});
+                    previous = hash;
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                jdbcTemplate.update("UPDATE audit_chain_head SET last_seq = ?, last_hash = ? WHERE id = 1", seq, previous);
+                written.increment(rows.size());
+            });
+        }
+    }
+
+    private static String hash(String previous, long seq, AuditEvent event) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(previous.getBytes(StandardCharsets.US_ASCII));
+            digest.update(("|" + seq + "|" + event.canonical()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Room reserved in the ring; see {@link #reserve()} */
+    public final class Slot {
+
+        private boolean published;
+
+        private Slot() {
+        }
+
+        public void publish(AuditEvent event) {
+            markPublished();
+            ring.publish(event);
+        }
+
+        /** Releases the slot without recording anything */
+        public void cancel() {
+            markPublished();
+            ring.cancel();
+        }
+
+        private void markPublished() {
+            if (published) {
+                throw new IllegalStateException("Audit slot already published");
+            }
+            published = true;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.financialapp.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of audit events. Capacity is
+ * reserved with a CAS on a counter before the audited work starts, but the
+ * sequence number is only claimed when the event is published, so a slow
+ * transfer never holds up the events published after it. The consumer
+ * reads slots strictly in sequence order and frees them only after the
+ * batch has been written, so nothing is lost if a write fails.
+ */
+class AuditRingBuffer {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AuditEvent[] events;
+
+    // Sequence last published into each slot; its volatile write publishes the event
+    private final AtomicLongArray published;
+
+    private final AtomicLong claimed = new AtomicLong();
+
+    // Reservations not yet published plus published events not yet released; never above capacity
+    private final AtomicInteger used = new AtomicInteger();
+
+    private volatile long consumed;
+
+    AuditRingBuffer(int minCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.events = new AuditEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Reserves room for one event, to be followed by exactly one
+     * {@link #publish} or {@link #cancel}.
+     *
+     * @return false if the ring is full
+     */
+    boolean tryReserve() {
+        while (true) {
+            int current = used.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claims the next sequence for a reserved event and publishes it. The
+     * reservation guarantees the slot has been released by the consumer.
+     */
+    void publish(AuditEvent event) {
+        long sequence = claimed.getAndIncrement();
+        int index = (int) (sequence & mask);
+        events[index] = event;
+        published.set(index, sequence);
+    }
+
+    /** Gives back a reservation that has nothing to record */
+    void cancel() {
+        used.decrementAndGet();
+    }
+
+    /**
+     * Copies up to {@code max} consecutive published events, starting at
+     * the oldest unconsumed one, without freeing their slots. Consumer only.
+     */
+    int peek(List<AuditEvent> into, int max) {
+        long sequence = consumed;
+        int count = 0;
+        while (count < max && published.get((int) (sequence & mask)) == sequence) {
+            into.add(events[(int) (sequence & mask)]);
+            sequence++;
+            count++;
+        }
+        return count;
+    }
+
+    /** Frees the {@code count} oldest slots after they have been written. Consumer only. */
+    void release(int count) {
+        long sequence = consumed;
+        for (int i = 0; i < count; i++) {
+            events[(int) ((sequence + i) & mask)] = null;
+        }
+        consumed = sequence + count;
+        // Only after consumed has moved on, so a new reservation never lands on an unreleased slot
+        used.addAndGet(-count);
+    }
+
+    /** Reserved or published events not yet released */
+    long pending() {
+        return used.get();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,251 @@
+package com.financialapp.batch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financialapp.dto.BatchRequestItem;
+import com.financialapp.dto.BatchResponseItem;
+import com.financialapp.ratelimit.RequestGuardFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the items of a POST /batch through the dispatcher servlet in-process.
+ * The batch itself passes the security filter chain once, so its JWT is
+ * checked once; items reuse that authentication, are authorized against the
+ * same URL rules, and still go through the rate limits and bulkheads of
+ * {@link RequestGuardFilter}.
+ *
+ * <p>Items run in order, except that consecutive GETs run in parallel. A
+ * write waits for every item before it and holds back every item after it.
+ */
+@Component
+public class BatchDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchDispatcher.class);
+
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "DELETE");
+
+    // Paths that are not plain API calls: sign-in and token refresh, nested batches, management
+    private static final List<String> EXCLUDED_PATHS = List.of("/auth/", "/batch", "/actuator");
+
+    private static final List<String> RESPONSE_HEADERS = List.of(
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER);
+
+    @Autowired
+    private DispatcherServlet dispatcherServlet;
+
+    @Autowired
+    private RequestGuardFilter requestGuardFilter;
+
+    @Autowired
+    private WebInvocationPrivilegeEvaluator privilegeEvaluator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("batchExecutor")
+    private AsyncTaskExecutor batchExecutor;
+
+    @Value("${batch.max-requests}")
+    private int maxRequests;
+
+    /**
+     * @return one response per item, in the order of the items
+     */
+    public List<BatchResponseItem> dispatch(HttpServletRequest request, HttpServletResponse response,
+                                            List<BatchRequestItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("A batch needs at least one request");
+        }
+        if (items.size() > maxRequests) {
+            throw new RuntimeException("A batch can hold at most " + maxRequests + " requests");
+        }
+        meterRegistry.summary("batch.size").record(items.size());
+
+        BatchResponseItem[] results = new BatchResponseItem[items.size()];
+        int next = 0;
+        while (next < items.size()) {
+            int end = next + 1;
+            if (isRead(items.get(next))) {
+                while (end < items.size() && isRead(items.get(end))) {
+                    end++;
+                }
+            }
+            runTogether(request, response, items, results, next, end);
+            next = end;
+        }
+        return Arrays.asList(results);
+    }
+
+    // Runs items [from, to) at the same time and returns once all of them are done
+    private void runTogether(HttpServletRequest request, HttpServletResponse response, List<BatchRequestItem> items,
+                             BatchResponseItem[] results, int from, int to) {
+        SecurityContext context = SecurityContextHolder.getContext();
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        List<Integer> inline = new ArrayList<>();
+        inline.add(from);
+        for (int i = from + 1; i < to; i++) {
+            int index = i;
+            Runnable task = () -> results[index] = execute(request, response, items.get(index));
+            try {
+                running.add(CompletableFuture.runAsync(new DelegatingSecurityContextRunnable(task, context),
+                        batchExecutor));
+            } catch (RejectedExecutionException e) {
+                // Pool saturated: run it on this thread instead of failing it
+                inline.add(index);
+            }
+        }
+        for (int index : inline) {
+            results[index] = execute(request, response, items.get(index));
+        }
+        // No timeout: an item still running must never outlive the batch request it wraps
+        CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).join();
+    }
+
+    private BatchResponseItem execute(HttpServletRequest request, HttpServletResponse response, BatchRequestItem item) {
+        String method = item.getMethod() != null ? item.getMethod().toUpperCase(Locale.ROOT) : null;
+        String invalid = validate(method, item.getPath());
+        if (invalid != null) {
+            return failure(HttpStatus.BAD_REQUEST.value(), invalid);
+        }
+
+        SubRequest subRequest;
+        try {
+            byte[] body = item.getBody() != null && !item.getBody().isNull()
+                    ? objectMapper.writeValueAsBytes(item.getBody()) : new byte[0];
+            subRequest = new SubRequest(request, method, item.getPath(), body);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return failure(HttpStatus.BAD_REQUEST.value(), "Invalid request: " + e.getMessage());
+        }
+        if (!privilegeEvaluator.isAllowed(request.getContextPath(), item.getPath(), method,
+                SecurityContextHolder.getContext().getAuthentication())) {
+            return failure(HttpStatus.FORBIDDEN.value(), "Access denied");
+        }
+
+        BufferedResponse buffered = new BufferedResponse(response);
+        try {
+            requestGuardFilter.doFilter(subRequest, buffered, (rq, rs) -> dispatcherServlet.service(rq, rs));
+        } catch (Exception e) {
+            logger.warn("Batched {} {} failed", method, item.getPath(), e);
+            return failure(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal server error");
+        }
+        return toResponseItem(buffered);
+    }
+
+    private String validate(String method, String path) {
+        if (method == null || !METHODS.contains(method)) {
+            return "Method must be GET, POST, PUT or DELETE";
+        }
+        if (path == null || !path.startsWith("/")) {
+            return "Path must start with /";
+        }
+        String decoded = UriUtils.decode(UriComponentsBuilder.fromUriString(path).build().getPath(),
+                StandardCharsets.UTF_8);
+        if (decoded.contains("..") || decoded.contains("//")) {
+            return "Invalid path " + path;
+        }
+        for (String excluded : EXCLUDED_PATHS) {
+            if (decoded.startsWith(excluded)) {
+                return path + " cannot be batched";
+            }
+        }
+        return null;
+    }
+
+    private BatchResponseItem toResponseItem(BufferedResponse buffered) {
+        int status = buffered.status();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : RESPONSE_HEADERS) {
+            String value = buffered.headers().getFirst(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+
+        String body = buffered.body();
+        if (body.isEmpty()) {
+            if (status < 400) {
+                return new BatchResponseItem(status, headers, null);
+            }
+            String message = buffered.errorMessage();
+            if (message == null) {
+                HttpStatus httpStatus = HttpStatus.resolve(status);
+                message = httpStatus != null ? httpStatus.getReasonPhrase() : "Request failed";
+            }
+            return new BatchResponseItem(status, headers, errorBody(message));
+        }
+        if (isJson(buffered.getContentType())) {
+            return new BatchResponseItem(status, headers, body);
+        }
+        // Plain text and the like are embedded as a JSON string
+        try {
+            return new BatchResponseItem(status, headers, objectMapper.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BatchResponseItem failure(int status, String message) {
+        return new BatchResponseItem(status, Map.of(), errorBody(message));
+    }
+
+    private String errorBody(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("message", message);
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isRead(BatchRequestItem item) {
+        return "GET".equalsIgnoreCase(item.getMethod());
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return mediaType.isCompatibleWith(MediaType.APPLICATION_JSON) || mediaType.getSubtype().endsWith("+json");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.financialapp.batch;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Collects the status, headers and body of one batch item in memory. Nothing
+ * reaches the batch's own response, which is written once every item is done.
+ */
+class BufferedResponse extends HttpServletResponseWrapper {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    private int status = SC_OK;
+
+    private String errorMessage;
+
+    private String characterEncoding;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    BufferedResponse(HttpServletResponse batch) {
+        super(batch);
+    }
+
+    int status() {
+        return status;
+    }
+
+    String errorMessage() {
+        return errorMessage;
+    }
+
+    HttpHeaders headers() {
+        return headers;
+    }
+
+    String body() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return body.toString(charset());
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        status = sc;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void sendError(int sc, String msg) {
+        status = sc;
+        errorMessage = msg;
+    }
+
+    @Override
+    public void sendError(int sc) {
+        sendError(sc, null);
+    }
+
+    @Override
+    public void sendRedirect(String location) {
+        status = SC_FOUND;
+        headers.set(HttpHeaders.LOCATION, location);
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (value == null) {
+            headers.remove(name);
+        } else {
+            headers.set(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        headers.add(name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        headers.setDate(name, date);
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC)));
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.containsKey(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headers.getFirst(name);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> values = headers.get(name);
+        return values != null ? values : List.of();
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return headers.keySet();
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        // Items cannot set cookies on the batch response
+    }
+
+    @Override
+    public void setContentType(String type) {
+        setHeader(HttpHeaders.CONTENT_TYPE, type);
+    }
+
+    @Override
+    public String getContentType() {
+        return headers.getFirst(HttpHeaders.CONTENT_TYPE);
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        characterEncoding = charset;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return charset().name();
+    }
+
+    @Override
+    public void setContentLength(int len) {
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.write(b, off, len);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(body, charset()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return false;
+    }
+
+    @Override
+    public void resetBuffer() {
+        body.reset();
+    }
+
+    @Override
+    public void reset() {
+        body.reset();
+        headers.clear();
+        status = SC_OK;
+        errorMessage = null;
+    }
+
+    private Charset charset() {
+        if (characterEncoding != null) {
+            return Charset.forName(characterEncoding);
+        }
+        String contentType = getContentType();
+        if (contentType != null) {
+            try {
+                Charset charset = MediaType.parseMediaType(contentType).getCharset();
+                if (charset != null) {
+                    return charset;
+                }
+            } catch (IllegalArgumentException e) {
+                // Fall back to UTF-8 below
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
@@ -0,0 +1,288 @@
+package com.financialapp.batch;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One batch item presented to the dispatcher as a request of its own. It
+ * shares the batch's remote address, principal and most headers, but has
+ * its own method, path, query, body and attributes, so per-request state
+ * (filter flags, handler mappings) never leaks between items.
+ */
+class SubRequest extends HttpServletRequestWrapper {
+
+    // Headers describing the batch's own body or caching, which do not apply to an item
+    private static final Set<String> HIDDEN_HEADERS = Set.of(
+            "content-type", "content-length", "transfer-encoding", "accept", "accept-encoding",
+            "if-none-match", "if-modified-since", "if-match", "if-unmodified-since");
+
+    private final String method;
+
+    private final String path;
+
+    private final String queryString;
+
+    private final byte[] body;
+
+    private final Map<String, String[]> parameters;
+
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    SubRequest(HttpServletRequest batch, String method, String path, byte[] body) {
+        super(batch);
+        UriComponents uri = UriComponentsBuilder.fromUriString(path).build();
+        this.method = method;
+        this.path = uri.getPath();
+        this.queryString = uri.getQuery();
+        this.body = body;
+        this.parameters = decode(uri.getQueryParams());
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return getContextPath() + path;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        return new StringBuffer(getScheme()).append("://").append(getServerName()).append(':')
+                .append(getServerPort()).append(getRequestURI());
+    }
+
+    @Override
+    public String getServletPath() {
+        return UriUtils.decode(path, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null ? values[0] : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parameters;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        String lower = name.toLowerCase();
+        if (lower.equals("accept")) {
+            return MediaType.APPLICATION_JSON_VALUE;
+        }
+        if (lower.equals("content-type")) {
+            return getContentType();
+        }
+        if (lower.equals("content-length")) {
+            return body.length > 0 ? Integer.toString(body.length) : null;
+        }
+        return HIDDEN_HEADERS.contains(lower) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        String value = getHeader(name);
+        if (HIDDEN_HEADERS.contains(name.toLowerCase())) {
+            return Collections.enumeration(value != null ? List.of(value) : List.of());
+        }
+        return super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        List<String> names = new ArrayList<>();
+        for (Enumeration<String> e = super.getHeaderNames(); e.hasMoreElements(); ) {
+            String name = e.nextElement();
+            if (!HIDDEN_HEADERS.contains(name.toLowerCase())) {
+                names.add(name);
+            }
+        }
+        names.add("accept");
+        if (body.length > 0) {
+            names.add("content-type");
+            names.add("content-length");
+        }
+        return Collections.enumeration(names);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        return HIDDEN_HEADERS.contains(name.toLowerCase()) ? -1 : super.getDateHeader(name);
+    }
+
+    @Override
+    public String getContentType() {
+        return body.length > 0 ? MediaType.APPLICATION_JSON_VALUE : null;
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Async processing is not supported inside a batch");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+        return startAsync();
+    }
+
+    private static Map<String, String[]> decode(MultiValueMap<String, String> query) {
+        MultiValueMap<String, String> decoded = new LinkedMultiValueMap<>();
+        query.forEach((name, values) -> values.forEach(value -> decoded.add(
+                decodeComponent(name), value != null ? decodeComponent(value) : "")));
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        decoded.forEach((name, values) -> parameters.put(name, values.toArray(new String[0])));
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    // Form-style query encoding, where '+' is a space
+    private static String decodeComponent(String value) {
+        return UriUtils.decode(value.replace("+", "%20"), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,46 @@
+package com.financialapp.cli;
+
+import com.financialapp.audit.AuditLogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes the audit log hash chain and exits when started with
+ * {@code --verify-audit-log}. Exits with status 1 if the chain is broken.
+ */
+@Component
+public class AuditVerifyRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditVerifyRunner.class);
+
+    private static final String OPTION = "verify-audit-log";
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        long firstBroken = auditLogService.verify();
+        if (firstBroken >= 0) {
+            logger.error("Audit log hash chain is broken at seq {}", firstBroken);
+        } else {
+            logger.info("Audit log hash chain is intact");
+        }
+
+        int exitCode = firstBroken >= 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+    }
+}
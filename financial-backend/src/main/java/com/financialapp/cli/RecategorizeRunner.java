@@ -0,0 +1,40 @@
+package com.financialapp.cli;
+
+import com.financialapp.service.CategorizationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-applies the category rules to existing transactions and exits when
+ * started with {@code --recategorize-transactions=uncategorized|all}.
+ */
+@Component
+public class RecategorizeRunner implements ApplicationRunner {
+
+    private static final String OPTION = "recategorize-transactions";
+
+    @Autowired
+    private CategorizationService categorizationService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        String scope = args.getOptionValues(OPTION).isEmpty() ? "uncategorized" : args.getOptionValues(OPTION).get(0);
+        if (!scope.equals("uncategorized") && !scope.equals("all")) {
+            throw new IllegalArgumentException("--" + OPTION + " must be 'uncategorized' or 'all'");
+        }
+        categorizationService.recategorize(scope.equals("all"));
+
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+}
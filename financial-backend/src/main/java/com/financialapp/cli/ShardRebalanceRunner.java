@@ -0,0 +1,55 @@
+package com.financialapp.cli;
+
+import com.financialapp.datasource.ShardRebalancer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs a shard rebalance phase and exits when started with
+ * {@code --rebalance-shards=pin} or {@code --rebalance-shards=move}.
+ */
+@Component
+public class ShardRebalanceRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalanceRunner.class);
+
+    private static final String OPTION = "rebalance-shards";
+
+    @Autowired(required = false)
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        int exitCode = 0;
+        List<String> phases = args.getOptionValues(OPTION);
+        if (shardRebalancer == null) {
+            logger.error("Rebalancing needs sharding.enabled=true");
+            exitCode = 1;
+        } else if (phases.contains("pin")) {
+            shardRebalancer.pin();
+        } else if (phases.contains("move")) {
+            shardRebalancer.move();
+        } else {
+            logger.error("Unknown rebalance phase {}, expected pin or move", phases);
+            exitCode = 1;
+        }
+
+        int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+}
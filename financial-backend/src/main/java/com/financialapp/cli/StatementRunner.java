@@ -0,0 +1,41 @@
+package com.financialapp.cli;
+
+import com.financialapp.service.StatementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Generates monthly statements and exits when started with
+ * {@code --generate-statements=<yyyy-MM>}. Rerunning for the same month
+ * resumes from the checkpoint.
+ */
+@Component
+public class StatementRunner implements ApplicationRunner {
+
+    private static final String OPTION = "generate-statements";
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        for (String month : args.getOptionValues(OPTION)) {
+            statementService.generate(YearMonth.parse(month));
+        }
+
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+}
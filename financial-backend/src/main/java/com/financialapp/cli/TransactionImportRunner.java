@@ -0,0 +1,59 @@
+package com.financialapp.cli;
+
+import com.financialapp.dto.ImportResult;
+import com.financialapp.service.TransactionImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports a transaction CSV and exits when started with
+ * {@code --import-transactions=<file>}.
+ */
+@Component
+public class TransactionImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionImportRunner.class);
+
+    private static final String OPTION = "import-transactions";
+
+    @Autowired
+    private TransactionImportService transactionImportService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+
+        int exitCode = 0;
+        for (String file : args.getOptionValues(OPTION)) {
+            try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                ImportResult result = transactionImportService.importCsv(reader, null);
+                logger.info("{}: {} imported, {} rejected, {} rows/s", file, result.getRowsImported(),
+                        result.getRowsRejected(), Math.round(result.getRowsPerSecond()));
+                result.getErrors().forEach(error ->
+                        logger.warn("{}:{}: {}", file, error.getLine(), error.getMessage()));
+                if (result.getRowsRejected() > 0) {
+                    exitCode = 1;
+                }
+            }
+        }
+
+        int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+}
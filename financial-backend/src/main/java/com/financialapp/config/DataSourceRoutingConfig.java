@@ -0,0 +1,60 @@
+package com.financialapp.config;
+
+import com.financialapp.datasource.DataSourceRoutingProperties;
+import com.financialapp.datasource.DatabaseEndpoint;
+import com.financialapp.datasource.ReadWriteRoutingDataSource;
+import com.financialapp.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+@ConditionalOnProperty(prefix = "datasource-routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                                 DataSourceRoutingProperties routingProperties,
+                                                                 MeterRegistry meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        primary.setMetricRegistry(meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (DatabaseEndpoint replica : routingProperties.getReplicas()) {
+            HikariDataSource pool = replica.createPool("replica-" + replicas.size(), dataSourceProperties, meterRegistry);
+            pool.setReadOnly(true);
+            replicas.add(pool);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+                                               DataSourceRoutingProperties routingProperties) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(readWriteRoutingDataSource,
+                routingProperties.getMaxReplicaLagMs());
+        // Once before the first request, then on the monitor's schedule
+        monitor.checkReplicas();
+        return monitor;
+    }
+}
@@ -0,0 +1,59 @@
+package com.financialapp.config;
+
+import com.financialapp.diagnostics.RequestCost;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${dashboard.executor.pool-size}")
+    private int poolSize;
+
+    @Value("${dashboard.executor.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${batch.executor.pool-size}")
+    private int batchPoolSize;
+
+    @Value("${batch.executor.queue-capacity}")
+    private int batchQueueCapacity;
+
+    /**
+     * Bounded pool used to fan out independent read queries. Once the pool
+     * and its queue are full new work is rejected rather than queued forever.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor fanOutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fan-out-");
+        // Charges the queries and allocations of fanned-out work to the request that started it
+        executor.setTaskDecorator(RequestCost::propagate);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(5);
+        return executor;
+    }
+
+    /**
+     * Runs the parallel reads of POST /batch. Kept apart from the fan-out pool
+     * because a batched read such as /dashboard fans out itself, and must not
+     * wait on threads its own batch is holding.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor batchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(batchPoolSize);
+        executor.setMaxPoolSize(batchPoolSize);
+        executor.setQueueCapacity(batchQueueCapacity);
+        executor.setThreadNamePrefix("batch-");
+        executor.setTaskDecorator(RequestCost::propagate);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(5);
+        return executor;
+    }
+}
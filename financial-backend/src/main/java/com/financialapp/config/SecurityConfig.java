@@ -1,5 +1,9 @@
 package com.financialapp.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financialapp.security.JwtAuthenticationFilter;
+import com.financialapp.security.JwtUtil;
+import com.financialapp.security.TokenRevocationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,6 +14,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -31,7 +36,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtUtil jwtUtil,
+                                           TokenRevocationService tokenRevocationService,
+                                           ObjectMapper objectMapper) throws Exception {
         http.cors().and().csrf().disable()
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
@@ -40,9 +47,19 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/accounts/**").permitAll()
                         .requestMatchers("/transfers/**").permitAll()
+                        // Imports are stored under the caller, so they need a signed-in user
+                        .requestMatchers("/transactions/import").authenticated()
                         .requestMatchers("/transactions/**").permitAll()
+                        .requestMatchers("/dashboard/**").permitAll()
+                        .requestMatchers("/analytics/**").permitAll()
+                        .requestMatchers("/savings-goals/**").permitAll()
+                        .requestMatchers("/sync/**").permitAll()
+                        .requestMatchers("/batch/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         .anyRequest().authenticated()
-                );
+                )
+                .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, tokenRevocationService, objectMapper),
+                        UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,85 @@
+package com.financialapp.config;
+
+import com.financialapp.datasource.DatabaseEndpoint;
+import com.financialapp.datasource.ShardDirectory;
+import com.financialapp.datasource.ShardOverrideStore;
+import com.financialapp.datasource.ShardRebalancer;
+import com.financialapp.datasource.ShardRoutingDataSource;
+import com.financialapp.datasource.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * Shard 0 is {@code spring.datasource}; {@code sharding.shards} lists
+     * shards 1..N-1.
+     */
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                         ShardingProperties shardingProperties,
+                                                         MeterRegistry meterRegistry,
+                                                         Environment environment) {
+        if (environment.getProperty("datasource-routing.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("sharding and datasource-routing cannot be enabled together");
+        }
+        List<HikariDataSource> shards = new ArrayList<>();
+        HikariDataSource first = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        first.setPoolName("shard-0");
+        first.setMetricRegistry(meterRegistry);
+        shards.add(first);
+        for (DatabaseEndpoint shard : shardingProperties.getShards()) {
+            shards.add(shard.createPool("shard-" + shards.size(), dataSourceProperties, meterRegistry));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * Spring begins a {@code @Transactional} method's transaction before
+     * the method body binds the user's shard. The lazy proxy holds off the
+     * physical connection, and with it the choice of shard, until the first
+     * statement; without it those methods would run on the wrong shard.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardRoutingDataSource shardRoutingDataSource) {
+        return new ShardDirectory(shardRoutingDataSource.getShardCount());
+    }
+
+    @Bean
+    public ShardOverrideStore shardOverrideStore(ShardRoutingDataSource shardRoutingDataSource,
+                                                 ShardDirectory shardDirectory) {
+        return new ShardOverrideStore(shardRoutingDataSource, shardDirectory);
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardRoutingDataSource shardRoutingDataSource,
+                                           ShardDirectory shardDirectory,
+                                           ShardOverrideStore shardOverrideStore,
+                                           ShardingProperties shardingProperties) {
+        return new ShardRebalancer(shardRoutingDataSource, shardDirectory, shardOverrideStore,
+                shardingProperties.getDirectoryRefreshMs());
+    }
+}
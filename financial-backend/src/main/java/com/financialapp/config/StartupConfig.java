@@ -0,0 +1,47 @@
+package com.financialapp.config;
+
+import com.financialapp.audit.AuditLogService;
+import com.financialapp.datasource.ReplicaLagMonitor;
+import com.financialapp.datasource.ShardOverrideStore;
+import com.financialapp.ratelimit.RequestGuardFilter;
+import com.financialapp.security.TokenRevocationService;
+import com.financialapp.service.BudgetAlertService;
+import com.financialapp.service.CategorizationService;
+import com.financialapp.service.ChangeLogService;
+import com.financialapp.service.FxRateService;
+import com.financialapp.service.HotAccountService;
+import com.financialapp.service.RefreshTokenService;
+import com.financialapp.service.RoundUpService;
+import com.financialapp.service.StatementService;
+import com.financialapp.service.VelocityCheckService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Beans that must still start eagerly when spring.main.lazy-initialization
+     * is on: scheduled jobs are only registered once their bean exists, and the
+     * velocity windows and FX snapshot have to be loaded before the first transfer.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                VelocityCheckService.class,
+                AuditLogService.class,
+                ChangeLogService.class,
+                CategorizationService.class,
+                BudgetAlertService.class,
+                FxRateService.class,
+                HotAccountService.class,
+                StatementService.class,
+                TokenRevocationService.class,
+                RefreshTokenService.class,
+                RoundUpService.class,
+                ReplicaLagMonitor.class,
+                ShardOverrideStore.class,
+                RequestGuardFilter.class);
+    }
+}
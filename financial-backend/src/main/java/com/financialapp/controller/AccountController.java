@@ -2,10 +2,12 @@ package com.financialapp.controller;
 
 import com.financialapp.model.Account;
 import com.financialapp.service.AccountService;
+import com.financialapp.service.DataVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,12 +19,22 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
     @GetMapping
-    public ResponseEntity<List<Account>> getAccounts(Authentication authentication) {
+    public ResponseEntity<List<Account>> getAccounts(Authentication authentication, WebRequest webRequest) {
         try {
             // In a real app, you'd get userId from JWT token
             // For now, we'll use a hardcoded user ID (23) from our test data
             Long userId = 23L;
+
+            // Answer revalidations from the version counter alone
+            String eTag = dataVersionService.eTag("accounts", userId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+
             List<Account> accounts = accountService.getAccountsByUserId(userId);
             return ResponseEntity.ok(accounts);
         } catch (Exception e) {
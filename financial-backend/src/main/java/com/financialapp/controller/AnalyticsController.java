@@ -0,0 +1,83 @@
+package com.financialapp.controller;
+
+import com.financialapp.service.AnalyticsService;
+import com.financialapp.service.DataVersionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    // Income vs expense per month, e.g. ?from=2024-01&to=2024-12; the last 12 months by default
+    @GetMapping("/cashflow")
+    public ResponseEntity<List<Map<String, Object>>> getCashFlow(Authentication authentication,
+                                                                 @RequestParam(required = false) YearMonth from,
+                                                                 @RequestParam(required = false) YearMonth to,
+                                                                 WebRequest webRequest) {
+        try {
+            // In a real app, you'd get userId from JWT token
+            // For now, we'll use a hardcoded user ID (23) from our test data
+            Long userId = 23L;
+
+            YearMonth end = to != null ? to : YearMonth.now();
+            YearMonth start = from != null ? from : end.minusMonths(11);
+            if (start.isAfter(end) || start.plusYears(10).isBefore(end)) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            String eTag = dataVersionService.localETag("cashflow-" + start + "-" + end, userId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok(analyticsService.getCashFlow(userId, start, end));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Spending (or income with type=CREDIT) per category, e.g. ?from=2024-09-01&to=2024-09-30; this month by default
+    @GetMapping("/categories")
+    public ResponseEntity<List<Map<String, Object>>> getCategories(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DEBIT") String type,
+            WebRequest webRequest) {
+        try {
+            // In a real app, you'd get userId from JWT token
+            // For now, we'll use a hardcoded user ID (23) from our test data
+            Long userId = 23L;
+
+            LocalDate start = from != null ? from : YearMonth.now().atDay(1);
+            LocalDate end = to != null ? to : YearMonth.from(start).atEndOfMonth();
+            if (start.isAfter(end) || !("DEBIT".equals(type) || "CREDIT".equals(type))) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            String eTag = dataVersionService.localETag("categories-" + type + "-" + start + "-" + end, userId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok(analyticsService.getCategoryBreakdown(userId, start, end, "DEBIT".equals(type)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
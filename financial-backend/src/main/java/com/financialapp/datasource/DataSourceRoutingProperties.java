@@ -0,0 +1,40 @@
+package com.financialapp.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "datasource-routing")
+public class DataSourceRoutingProperties {
+
+    private boolean enabled;
+
+    private long maxReplicaLagMs = 5000;
+
+    private List<DatabaseEndpoint> replicas = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxReplicaLagMs() {
+        return maxReplicaLagMs;
+    }
+
+    public void setMaxReplicaLagMs(long maxReplicaLagMs) {
+        this.maxReplicaLagMs = maxReplicaLagMs;
+    }
+
+    public List<DatabaseEndpoint> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<DatabaseEndpoint> replicas) {
+        this.replicas = replicas;
+    }
+}
@@ -0,0 +1,53 @@
+package com.financialapp.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+/**
+ * Connection settings for one extra database (replica or shard). Missing
+ * credentials fall back to those of {@code spring.datasource}.
+ */
+public class DatabaseEndpoint {
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    public HikariDataSource createPool(String poolName, DataSourceProperties defaults, MeterRegistry meterRegistry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(poolName);
+        pool.setDriverClassName(defaults.getDriverClassName());
+        pool.setJdbcUrl(url);
+        pool.setUsername(username != null ? username : defaults.getUsername());
+        pool.setPassword(password != null ? password : defaults.getPassword());
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
@@ -0,0 +1,115 @@
+package com.financialapp.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica (round robin) and
+ * everything else to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy: the read-only flag is only bound to the
+ * thread after the transaction manager has asked for a connection.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final Map<String, HikariDataSource> pools;
+
+    private final List<String> replicaKeys;
+
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Map<String, Counter> routeCounters = new HashMap<>();
+
+    private final Counter fallbackCounter;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, MeterRegistry meterRegistry) {
+        pools = new LinkedHashMap<>();
+        pools.put(PRIMARY, primary);
+        replicaKeys = new ArrayList<>();
+        for (HikariDataSource replica : replicas) {
+            pools.put(replica.getPoolName(), replica);
+            replicaKeys.add(replica.getPoolName());
+            healthyReplicas.add(replica.getPoolName());
+        }
+        for (String key : pools.keySet()) {
+            routeCounters.put(key, meterRegistry.counter("datasource.routing.requests", "route", key));
+        }
+        fallbackCounter = meterRegistry.counter("datasource.routing.replica.fallbacks");
+
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PRIMARY_READS.get() == null
+                ? pickReplica() : PRIMARY;
+        routeCounters.get(key).increment();
+        return key;
+    }
+
+    /**
+     * Keeps this thread's read-only transactions on the primary until the
+     * scope is closed, for reads that must be at least as new as something
+     * already read there. Must be open when the first statement runs.
+     */
+    public static ShardContext.Scope readFromPrimary() {
+        if (PRIMARY_READS.get() != null) {
+            return ShardContext.noOp();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        return PRIMARY_READS::remove;
+    }
+
+    private String pickReplica() {
+        int size = replicaKeys.size();
+        if (size > 0) {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                String key = replicaKeys.get((start + i) % size);
+                if (healthyReplicas.contains(key)) {
+                    return key;
+                }
+            }
+            fallbackCounter.increment();
+        }
+        return PRIMARY;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicaKeys.forEach(key -> replicas.put(key, pools.get(key)));
+        return replicas;
+    }
+
+    public void setReplicaHealthy(String key, boolean healthy) {
+        if (healthy) {
+            healthyReplicas.add(key);
+        } else {
+            healthyReplicas.remove(key);
+        }
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,71 @@
+package com.financialapp.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Periodically measures replay lag on every replica and takes replicas that
+ * fall too far behind (or cannot be reached) out of the read rotation until
+ * they catch up again.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Zero on a primary or standalone instance, which keeps local test setups routable, and on a
+    // standby that is streaming and has replayed all the WAL it received: the last replayed
+    // transaction gets older whenever the primary is quiet, without the standby falling behind.
+    // NULL on a standby whose WAL receiver is not streaming, since it has replayed everything it
+    // received without being current. The receiver's status is only visible with
+    // pg_read_all_stats; without it, a running receiver process is taken as streaming.
+    private static final String LAG_QUERY = "SELECT CASE "
+            + "WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver "
+            + "WHERE COALESCE(status, 'streaming') = 'streaming') THEN NULL "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+
+    private final long maxReplicaLagMs;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, long maxReplicaLagMs) {
+        this.routingDataSource = routingDataSource;
+        this.maxReplicaLagMs = maxReplicaLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource-routing.lag-check-interval-ms:5000}",
+            initialDelayString = "${datasource-routing.lag-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Map.Entry<String, DataSource> replica : routingDataSource.getReplicas().entrySet()) {
+            boolean healthy;
+            try (Connection connection = replica.getValue().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                long lagMs = rs.getLong(1);
+                if (rs.wasNull()) {
+                    healthy = false;
+                    logger.warn("Replica {} is not streaming from the primary, routing reads to primary",
+                            replica.getKey());
+                } else {
+                    healthy = lagMs <= maxReplicaLagMs;
+                    if (!healthy) {
+                        logger.warn("Replica {} is {} ms behind, routing reads to primary", replica.getKey(), lagMs);
+                    }
+                }
+            } catch (Exception e) {
+                healthy = false;
+                logger.warn("Replica {} is unreachable: {}", replica.getKey(), e.getMessage());
+            }
+            routingDataSource.setReplicaHealthy(replica.getKey(), healthy);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.financialapp.datasource;
+
+/**
+ * Shard bound to the current thread. The routing DataSource reads it when
+ * a physical connection is opened, so it must be bound before the first
+ * statement of a transaction and stay bound until the transaction ends.
+ * <p>
+ * {@code @Transactional} service methods bind inside the transaction
+ * Spring has already begun. That only works because the primary DataSource
+ * is a {@code LazyConnectionDataSourceProxy} (see {@code ShardingConfig}),
+ * which opens the physical connection at the first statement rather than
+ * at transaction start. Code that takes a connection straight from the
+ * routing DataSource must bind first.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private static final Scope NO_OP = () -> { };
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static Scope bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public static Scope noOp() {
+        return NO_OP;
+    }
+
+    /**
+     * Restores the previously bound shard when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,64 @@
+package com.financialapp.datasource;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps user ids to shards. Placement comes from a consistent-hash ring
+ * with virtual nodes, so adding a shard moves only about 1/N of users.
+ * Users that do not yet live where the ring says they should (because
+ * they are waiting to be rebalanced) are pinned by an explicit override.
+ */
+public class ShardDirectory {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private final int shardCount;
+
+    private final NavigableMap<Long, Integer> ring = new TreeMap<>();
+
+    private volatile Map<Long, Integer> overrides = Map.of();
+
+    public ShardDirectory(int shardCount) {
+        this.shardCount = shardCount;
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(mix(shard * 1_000_003L + node), shard);
+            }
+        }
+    }
+
+    public int shardFor(long userId) {
+        Integer pinned = overrides.get(userId);
+        return pinned != null ? pinned : ringShardFor(userId);
+    }
+
+    /**
+     * @return the shard the ring assigns, ignoring overrides
+     */
+    public int ringShardFor(long userId) {
+        Map.Entry<Long, Integer> node = ring.ceilingEntry(mix(userId));
+        return node != null ? node.getValue() : ring.firstEntry().getValue();
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public Map<Long, Integer> getOverrides() {
+        return overrides;
+    }
+
+    public void setOverrides(Map<Long, Integer> overrides) {
+        this.overrides = Map.copyOf(overrides);
+    }
+
+    // SplitMix64 finalizer: spreads sequential ids evenly around the ring
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
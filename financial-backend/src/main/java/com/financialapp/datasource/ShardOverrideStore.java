@@ -0,0 +1,66 @@
+package com.financialapp.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persists shard overrides in the {@code shard_overrides} table on shard 0
+ * and keeps every instance's {@link ShardDirectory} in sync with it.
+ */
+public class ShardOverrideStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardOverrideStore.class);
+
+    private final JdbcTemplate directoryJdbc;
+
+    private final ShardDirectory shardDirectory;
+
+    public ShardOverrideStore(ShardRoutingDataSource shards, ShardDirectory shardDirectory) {
+        this.directoryJdbc = new JdbcTemplate(shards.getShard(0));
+        this.shardDirectory = shardDirectory;
+    }
+
+    @PostConstruct
+    public void init() {
+        directoryJdbc.execute("CREATE TABLE IF NOT EXISTS shard_overrides "
+                + "(user_id BIGINT PRIMARY KEY, shard INT NOT NULL)");
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${sharding.directory-refresh-ms:10000}")
+    public void refresh() {
+        Map<Long, Integer> overrides = new HashMap<>();
+        directoryJdbc.query("SELECT user_id, shard FROM shard_overrides",
+                rs -> { overrides.put(rs.getLong(1), rs.getInt(2)); });
+        if (!overrides.equals(shardDirectory.getOverrides())) {
+            logger.info("Loaded {} shard overrides", overrides.size());
+        }
+        shardDirectory.setOverrides(overrides);
+    }
+
+    public void pin(long userId, int shard) {
+        directoryJdbc.update("INSERT INTO shard_overrides (user_id, shard) VALUES (?, ?) "
+                + "ON CONFLICT (user_id) DO UPDATE SET shard = EXCLUDED.shard", userId, shard);
+        refresh();
+    }
+
+    public void unpin(long userId) {
+        directoryJdbc.update("DELETE FROM shard_overrides WHERE user_id = ?", userId);
+        refresh();
+    }
+
+    /**
+     * Hands out user ids from shard 0's sequence so that a new user's id,
+     * and therefore its shard, is known before the row is written.
+     */
+    public long nextUserId() {
+        Long id = directoryJdbc.queryForObject("SELECT nextval('users_id_seq')", Long.class);
+        return id;
+    }
+}
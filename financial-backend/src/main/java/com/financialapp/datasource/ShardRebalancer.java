@@ -0,0 +1,366 @@
+package com.financialapp.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Moves users onto the shard the hash ring assigns them, in two phases:
+ * <ol>
+ *   <li>{@link #pin()} records an override for every user that lives
+ *   somewhere other than its ring shard, so that instances running with a
+ *   new shard list keep finding existing data. Run it before the new shard
+ *   list goes live.</li>
+ *   <li>{@link #move()} then moves the pinned users to their ring shard in
+ *   batches while the service stays up. Each user is fenced on the source
+ *   shard, copied, and unpinned; the source copy is deleted once every
+ *   instance has had two directory refreshes to start routing to the
+ *   target.</li>
+ * </ol>
+ * A fence is a row in {@code shard_moves}. While {@code move()} runs, a
+ * trigger on every table holding user rows rejects writes to a fenced
+ * user's rows, whoever makes them, so nothing written to the source after
+ * the copy can be lost with it. The trigger takes a key-share lock on the
+ * user's {@code users} row, which fencing locks for update, so a fence
+ * waits for writes already under way to commit. A run that fails keeps
+ * its triggers and fences; running {@code move()} again finishes it.
+ */
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private static final int PAGE_SIZE = 10_000;
+
+    // Users switched over per wait for the directory refresh
+    private static final int MOVE_BATCH = 100;
+
+    // Tables with a user_id that live on shard 0 only and never move
+    private static final Set<String> SHARD_ZERO_TABLES = Set.of("audit_log", "shard_overrides");
+
+    // Transaction-local setting that lets the rebalancer's own writes through the fence, read by FENCE_FUNCTION
+    private static final String MOVER_SETTING = "financialapp.shard_mover";
+
+    private static final String FENCE_FUNCTION = """
+            CREATE OR REPLACE FUNCTION shard_move_fence() RETURNS trigger LANGUAGE plpgsql AS $$
+            DECLARE
+                row_key TEXT;
+                row_user BIGINT;
+            BEGIN
+                IF current_setting('financialapp.shard_mover', true) IS DISTINCT FROM 'on' THEN
+                    IF TG_OP = 'DELETE' THEN
+                        row_key := to_jsonb(OLD) ->> TG_ARGV[0];
+                    ELSE
+                        row_key := to_jsonb(NEW) ->> TG_ARGV[0];
+                    END IF;
+                    IF TG_ARGV[0] = 'account_id' THEN
+                        SELECT user_id INTO row_user FROM accounts WHERE id = row_key::BIGINT;
+                    ELSE
+                        row_user := row_key::BIGINT;
+                    END IF;
+                    PERFORM 1 FROM users WHERE id = row_user FOR KEY SHARE;
+                    IF EXISTS (SELECT 1 FROM shard_moves WHERE user_id = row_user) THEN
+                        RAISE EXCEPTION 'User % is being moved to another shard, try again shortly', row_user
+                            USING ERRCODE = 'object_in_use';
+                    END IF;
+                END IF;
+                IF TG_OP = 'DELETE' THEN
+                    RETURN OLD;
+                END IF;
+                RETURN NEW;
+            END $$
+            """;
+
+    private final ShardRoutingDataSource shards;
+
+    private final ShardDirectory shardDirectory;
+
+    private final ShardOverrideStore shardOverrideStore;
+
+    private final long directoryRefreshMs;
+
+    public ShardRebalancer(ShardRoutingDataSource shards, ShardDirectory shardDirectory,
+                           ShardOverrideStore shardOverrideStore, long directoryRefreshMs) {
+        this.shards = shards;
+        this.shardDirectory = shardDirectory;
+        this.shardOverrideStore = shardOverrideStore;
+        this.directoryRefreshMs = directoryRefreshMs;
+    }
+
+    public int pin() {
+        int pinned = 0;
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            JdbcTemplate jdbc = new JdbcTemplate(shards.getShard(shard));
+            long lastId = 0;
+            while (true) {
+                List<Long> ids = jdbc.queryForList(
+                        "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT " + PAGE_SIZE, Long.class, lastId);
+                for (Long userId : ids) {
+                    if (shardDirectory.ringShardFor(userId) != shard
+                            && !Integer.valueOf(shard).equals(shardDirectory.getOverrides().get(userId))) {
+                        shardOverrideStore.pin(userId, shard);
+                        pinned++;
+                    }
+                }
+                if (ids.size() < PAGE_SIZE) {
+                    break;
+                }
+                lastId = ids.get(ids.size() - 1);
+            }
+        }
+        logger.info("Pinned {} users to their current shard", pinned);
+        return pinned;
+    }
+
+    public int move() throws SQLException, InterruptedException {
+        installFences();
+        List<Move> moves = new ArrayList<>();
+        for (Map.Entry<Long, Integer> override : new HashMap<>(shardDirectory.getOverrides()).entrySet()) {
+            long userId = override.getKey();
+            int from = override.getValue();
+            int to = shardDirectory.ringShardFor(userId);
+            if (from != to) {
+                moves.add(new Move(userId, from, to));
+            } else {
+                shardOverrideStore.unpin(userId);
+            }
+        }
+
+        // Left by a failed run after the switch, so only their source copy is still to go
+        List<Move> switched = switchedMoves();
+        for (Move move : moves) {
+            switchOver(move);
+            switched.add(move);
+            if (switched.size() == MOVE_BATCH) {
+                deleteSources(switched);
+            }
+        }
+        deleteSources(switched);
+
+        dropFences();
+        logger.info("Moved {} users to their ring shard", moves.size());
+        return moves.size();
+    }
+
+    // Fences the user on the source, copies them to the target and routes them there
+    private void switchOver(Move move) throws SQLException {
+        try (Connection source = shards.getShard(move.from()).getConnection();
+             Connection target = shards.getShard(move.to()).getConnection()) {
+            source.setAutoCommit(false);
+            target.setAutoCommit(false);
+            try {
+                update(source, "INSERT INTO shard_moves (user_id) VALUES (?) ON CONFLICT DO NOTHING", move.userId());
+                // Waits out transactions that have written the user's rows and still hold a key-share lock
+                try (PreparedStatement lock = source.prepareStatement("SELECT 1 FROM users WHERE id = ? FOR UPDATE")) {
+                    lock.setLong(1, move.userId());
+                    lock.executeQuery().close();
+                }
+                source.commit();
+
+                actAsMover(target);
+                // A copy left by a run that failed before the switch; nothing routes to it yet
+                update(target, "DELETE FROM users WHERE id = ?", move.userId());
+                copyRows(source, target, "users", "id = ?", move.userId());
+                copyRows(source, target, "accounts", "user_id = ?", move.userId());
+                copyRows(source, target, "account_balance_slots",
+                        "account_id IN (SELECT id FROM accounts WHERE user_id = ?)", move.userId());
+                for (String table : userTables(source)) {
+                    copyRows(source, target, table, "user_id = ?", move.userId());
+                }
+                target.commit();
+                source.commit();
+            } catch (SQLException | RuntimeException e) {
+                target.rollback();
+                source.rollback();
+                throw e;
+            }
+        }
+        // The target copy is authoritative from here on
+        shardOverrideStore.unpin(move.userId());
+    }
+
+    /**
+     * Deletes the source copies of switched users once every instance has
+     * reloaded its directory. Until then, writes from instances still
+     * routing to the source hit the fence instead of rows about to go.
+     */
+    private void deleteSources(List<Move> switched) throws SQLException, InterruptedException {
+        if (switched.isEmpty()) {
+            return;
+        }
+        Thread.sleep(2 * directoryRefreshMs);
+        for (Move move : switched) {
+            try (Connection source = shards.getShard(move.from()).getConnection()) {
+                source.setAutoCommit(false);
+                try {
+                    actAsMover(source);
+                    update(source, "DELETE FROM users WHERE id = ?", move.userId());
+                    update(source, "DELETE FROM shard_moves WHERE user_id = ?", move.userId());
+                    source.commit();
+                } catch (SQLException | RuntimeException e) {
+                    source.rollback();
+                    throw e;
+                }
+            }
+            logger.info("Moved user {} from shard {} to shard {}", move.userId(), move.from(), move.to());
+        }
+        switched.clear();
+    }
+
+    private List<Move> switchedMoves() {
+        List<Move> switched = new ArrayList<>();
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            for (Long userId : new JdbcTemplate(shards.getShard(shard))
+                    .queryForList("SELECT user_id FROM shard_moves", Long.class)) {
+                int current = shardDirectory.shardFor(userId);
+                if (current != shard) {
+                    switched.add(new Move(userId, shard, current));
+                }
+            }
+        }
+        return switched;
+    }
+
+    private void installFences() throws SQLException {
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            try (Connection connection = shards.getShard(shard).getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS shard_moves (user_id BIGINT PRIMARY KEY)");
+                statement.execute(FENCE_FUNCTION);
+                for (Map.Entry<String, String> table : fencedTables(connection).entrySet()) {
+                    statement.execute("CREATE OR REPLACE TRIGGER shard_move_fence "
+                            + "BEFORE INSERT OR UPDATE OR DELETE ON " + table.getKey()
+                            + " FOR EACH ROW EXECUTE FUNCTION shard_move_fence('" + table.getValue() + "')");
+                }
+            }
+        }
+    }
+
+    // Only once every move has finished; the triggers cost every write a lookup
+    private void dropFences() throws SQLException {
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            try (Connection connection = shards.getShard(shard).getConnection();
+                 Statement statement = connection.createStatement()) {
+                for (String table : fencedTables(connection).keySet()) {
+                    statement.execute("DROP TRIGGER IF EXISTS shard_move_fence ON " + table);
+                }
+            }
+        }
+    }
+
+    // Each table holding user rows, with the column that leads to the user
+    private static Map<String, String> fencedTables(Connection connection) throws SQLException {
+        Map<String, String> tables = new LinkedHashMap<>();
+        tables.put("users", "id");
+        tables.put("accounts", "user_id");
+        tables.put("account_balance_slots", "account_id");
+        for (String table : userTables(connection)) {
+            tables.put(table, "user_id");
+        }
+        return tables;
+    }
+
+    private static void actAsMover(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT set_config(?, 'on', true)")) {
+            statement.setString(1, MOVER_SETTING);
+            statement.executeQuery().close();
+        }
+    }
+
+    private static void update(Connection connection, String sql, long userId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, userId);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Every other table keyed by user_id, found from the catalog so that
+     * tables added later are moved too. Tables come after the tables their
+     * foreign keys point to, so each copied row finds its parent.
+     */
+    private static List<String> userTables(Connection connection) throws SQLException {
+        Set<String> remaining = new TreeSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT table_name FROM information_schema.columns WHERE table_schema = current_schema() "
+                        + "AND column_name = 'user_id' AND table_name NOT IN ('users', 'accounts')");
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                remaining.add(rs.getString(1));
+            }
+        }
+        remaining.removeAll(SHARD_ZERO_TABLES);
+
+        Map<String, Set<String>> parents = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT child.relname, parent.relname FROM pg_constraint c "
+                        + "JOIN pg_class child ON child.oid = c.conrelid "
+                        + "JOIN pg_class parent ON parent.oid = c.confrelid "
+                        + "WHERE c.contype = 'f' AND c.connamespace = current_schema()::regnamespace");
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                parents.computeIfAbsent(rs.getString(1), table -> new HashSet<>()).add(rs.getString(2));
+            }
+        }
+
+        List<String> tables = new ArrayList<>();
+        while (!remaining.isEmpty()) {
+            String next = remaining.stream()
+                    .filter(table -> parents.getOrDefault(table, Set.of()).stream()
+                            .noneMatch(parent -> !parent.equals(table) && remaining.contains(parent)))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Foreign key cycle among " + remaining));
+            tables.add(next);
+            remaining.remove(next);
+        }
+        return tables;
+    }
+
+    private static void copyRows(Connection source, Connection target, String table, String where, long userId)
+            throws SQLException {
+        try (PreparedStatement select = source.prepareStatement("SELECT * FROM " + table + " WHERE " + where)) {
+            select.setLong(1, userId);
+            try (ResultSet rs = select.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columnCount = meta.getColumnCount();
+                StringBuilder columns = new StringBuilder();
+                StringBuilder placeholders = new StringBuilder();
+                for (int i = 1; i <= columnCount; i++) {
+                    if (i > 1) {
+                        columns.append(", ");
+                        placeholders.append(", ");
+                    }
+                    columns.append(meta.getColumnName(i));
+                    placeholders.append('?');
+                }
+                try (PreparedStatement insert = target.prepareStatement(
+                        "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")")) {
+                    while (rs.next()) {
+                        for (int i = 1; i <= columnCount; i++) {
+                            insert.setObject(i, rs.getObject(i));
+                        }
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+
+    private record Move(long userId, int from, int to) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.financialapp.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Entry point for shard-aware code. With sharding disabled every call is a
+ * no-op on shard 0, so callers do not need to check first.
+ */
+@Component
+public class ShardRouter {
+
+    @Autowired(required = false)
+    private ShardDirectory shardDirectory;
+
+    @Autowired(required = false)
+    private ShardOverrideStore shardOverrideStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public boolean isEnabled() {
+        return shardDirectory != null;
+    }
+
+    public int getShardCount() {
+        return isEnabled() ? shardDirectory.getShardCount() : 1;
+    }
+
+    public int shardForUser(Long userId) {
+        return isEnabled() ? shardDirectory.shardFor(userId) : 0;
+    }
+
+    public ShardContext.Scope bindUser(Long userId) {
+        return isEnabled() ? ShardContext.bind(shardDirectory.shardFor(userId)) : ShardContext.noOp();
+    }
+
+    /**
+     * Binds the user's shard and keeps read-only transactions on its
+     * primary, for rows served under an ETag: the version was read there,
+     * and a lagging replica would pair it with older rows that the client
+     * then keeps behind 304s.
+     */
+    public ShardContext.Scope bindUserOnPrimary(Long userId) {
+        ShardContext.Scope shard = bindUser(userId);
+        ShardContext.Scope primary = ReadWriteRoutingDataSource.readFromPrimary();
+        return () -> {
+            primary.close();
+            shard.close();
+        };
+    }
+
+    public ShardContext.Scope bindShard(int shard) {
+        return isEnabled() ? ShardContext.bind(shard) : ShardContext.noOp();
+    }
+
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < getShardCount(); shard++) {
+            try (ShardContext.Scope ignored = bindShard(shard)) {
+                work.accept(shard);
+            }
+        }
+    }
+
+    /**
+     * Finds the shard holding an account, probing {@code preferredShard}
+     * first. Ids are unique across shards (see README), so at most one
+     * shard matches. Must not be called inside a transaction, whose
+     * connection is already tied to one shard.
+     *
+     * @return the shard, or null if no shard has the account
+     */
+    public Integer locateAccount(Long accountId, int preferredShard) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        for (int i = 0; i < getShardCount(); i++) {
+            int shard = (preferredShard + i) % getShardCount();
+            try (ShardContext.Scope ignored = ShardContext.bind(shard)) {
+                if (!jdbcTemplate.queryForList("SELECT 1 FROM accounts WHERE id = ?", accountId).isEmpty()) {
+                    return shard;
+                }
+            }
+        }
+        return null;
+    }
+
+    public long nextUserId() {
+        return shardOverrideStore.nextUserId();
+    }
+}
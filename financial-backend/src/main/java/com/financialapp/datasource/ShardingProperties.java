@@ -0,0 +1,41 @@
+package com.financialapp.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    // How often every instance reloads shard overrides
+    private long directoryRefreshMs = 10_000;
+
+    private List<DatabaseEndpoint> shards = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getDirectoryRefreshMs() {
+        return directoryRefreshMs;
+    }
+
+    public void setDirectoryRefreshMs(long directoryRefreshMs) {
+        this.directoryRefreshMs = directoryRefreshMs;
+    }
+
+    public List<DatabaseEndpoint> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<DatabaseEndpoint> shards) {
+        this.shards = shards;
+    }
+}
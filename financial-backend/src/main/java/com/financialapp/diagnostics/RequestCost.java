@@ -0,0 +1,90 @@
+package com.financialapp.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JDBC statements executed and bytes allocated on behalf of one request.
+ * The request thread binds it; work handed to other threads carries it
+ * along through {@link #propagate(Runnable)}, so fan-out queries and their
+ * allocations are charged to the request that asked for them. Nothing is
+ * bound in production; the request-budget tests bind one per request.
+ */
+public final class RequestCost {
+
+    private static final ThreadLocal<RequestCost> CURRENT = new ThreadLocal<>();
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    public int statements() {
+        return statements.get();
+    }
+
+    /** Allocations of finished work only; the binding thread adds its own when it unbinds */
+    public long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    void addAllocated(long bytes) {
+        allocatedBytes.addAndGet(bytes);
+    }
+
+    /** @return the cost previously bound to this thread, to be restored with {@link #restore} */
+    static RequestCost bind(RequestCost cost) {
+        RequestCost previous = CURRENT.get();
+        CURRENT.set(cost);
+        return previous;
+    }
+
+    static void restore(RequestCost previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    static void recordStatement() {
+        RequestCost cost = CURRENT.get();
+        if (cost != null) {
+            cost.statements.incrementAndGet();
+        }
+    }
+
+    /** Wraps a task so that it runs charged to the caller's request, if there is one */
+    public static Runnable propagate(Runnable task) {
+        RequestCost cost = CURRENT.get();
+        if (cost == null) {
+            return task;
+        }
+        return () -> {
+            RequestCost previous = bind(cost);
+            long start = threadAllocatedBytes();
+            try {
+                task.run();
+            } finally {
+                cost.addAllocated(threadAllocatedBytes() - start);
+                restore(previous);
+            }
+        };
+    }
+
+    /** Bytes allocated by the current thread so far, or 0 when the JVM does not count them */
+    static long threadAllocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+}
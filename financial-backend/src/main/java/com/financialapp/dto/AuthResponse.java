@@ -8,6 +8,8 @@ public class AuthResponse {
     private String email;
     private String username;
     private String phoneNumber;
+    private String refreshToken;
+    private Long expiresIn;
 
     // Constructors
     public AuthResponse() {}
@@ -68,4 +70,20 @@ public class AuthResponse {
     public void setPhoneNumber(String phoneNumber) {
         this.phoneNumber = phoneNumber;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
 }
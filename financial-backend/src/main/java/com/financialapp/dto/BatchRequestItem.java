@@ -0,0 +1,48 @@
+package com.financialapp.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/** One sub-request of a POST /batch call */
+public class BatchRequestItem {
+
+    private String method;
+
+    // Below the context path, with any query string, e.g. "/transfers?page=1"
+    private String path;
+
+    private JsonNode body;
+
+    // Constructors
+    public BatchRequestItem() {}
+
+    public BatchRequestItem(String method, String path, JsonNode body) {
+        this.method = method;
+        this.path = path;
+        this.body = body;
+    }
+
+    // Getters and Setters
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public JsonNode getBody() {
+        return body;
+    }
+
+    public void setBody(JsonNode body) {
+        this.body = body;
+    }
+}
@@ -0,0 +1,40 @@
+package com.financialapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.util.Map;
+
+/**
+ * Result of one sub-request of a POST /batch call. The body is the
+ * sub-request's JSON as written by its controller, embedded without being
+ * parsed again.
+ */
+public class BatchResponseItem {
+
+    private final int status;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private final Map<String, String> headers;
+
+    @JsonRawValue
+    private final String body;
+
+    public BatchResponseItem(int status, Map<String, String> headers, String body) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,77 @@
+package com.financialapp.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Body of a savings goal create or update; fields left null are not changed on update */
+public class SavingsGoalRequest {
+
+    @Size(max = 120)
+    private String name;
+
+    @DecimalMin(value = "0.01", inclusive = true)
+    private BigDecimal targetAmount;
+
+    private LocalDate deadline;
+
+    private String status;
+
+    private Long accountId;
+
+    private Boolean roundUp;
+
+    // Constructors
+    public SavingsGoalRequest() {}
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getTargetAmount() {
+        return targetAmount;
+    }
+
+    public void setTargetAmount(BigDecimal targetAmount) {
+        this.targetAmount = targetAmount;
+    }
+
+    public LocalDate getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(LocalDate deadline) {
+        this.deadline = deadline;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Boolean getRoundUp() {
+        return roundUp;
+    }
+
+    public void setRoundUp(Boolean roundUp) {
+        this.roundUp = roundUp;
+    }
+}
@@ -0,0 +1,59 @@
+package com.financialapp.dto;
+
+public class StatementRunResult {
+
+    private final String month;
+    private int partitions;
+    private int partitionsSkipped;
+    private long users;
+    private long accounts;
+    private long lineItems;
+    private double seconds;
+
+    public StatementRunResult(String month) {
+        this.month = month;
+    }
+
+    public synchronized void addPartition(long users, long accounts, long lineItems) {
+        this.partitions++;
+        this.users += users;
+        this.accounts += accounts;
+        this.lineItems += lineItems;
+    }
+
+    public synchronized void skipPartition() {
+        this.partitionsSkipped++;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public synchronized int getPartitions() {
+        return partitions;
+    }
+
+    public synchronized int getPartitionsSkipped() {
+        return partitionsSkipped;
+    }
+
+    public synchronized long getUsers() {
+        return users;
+    }
+
+    public synchronized long getAccounts() {
+        return accounts;
+    }
+
+    public synchronized long getLineItems() {
+        return lineItems;
+    }
+
+    public double getSeconds() {
+        return seconds;
+    }
+
+    public void setSeconds(double seconds) {
+        this.seconds = seconds;
+    }
+}
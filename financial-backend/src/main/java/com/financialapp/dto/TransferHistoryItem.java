@@ -0,0 +1,96 @@
+package com.financialapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a user's transfer history with both accounts resolved,
+ * built directly by the repository query.
+ */
+public class TransferHistoryItem {
+
+    private final Long id;
+    private final BigDecimal amount;
+    private final BigDecimal convertedAmount;
+    private final BigDecimal fxRate;
+    private final String description;
+    private final String status;
+    private final LocalDateTime createdAt;
+    private final Long fromAccountId;
+    private final String fromAccountName;
+    private final String fromCurrency;
+    private final Long toAccountId;
+    private final String toAccountName;
+    private final String toCurrency;
+
+    public TransferHistoryItem(Long id, BigDecimal amount, BigDecimal convertedAmount, BigDecimal fxRate,
+                               String description, String status, LocalDateTime createdAt,
+                               Long fromAccountId, String fromAccountName, String fromCurrency,
+                               Long toAccountId, String toAccountName, String toCurrency) {
+        this.id = id;
+        this.amount = amount;
+        this.convertedAmount = convertedAmount;
+        this.fxRate = fxRate;
+        this.description = description;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.fromAccountId = fromAccountId;
+        this.fromAccountName = fromAccountName;
+        this.fromCurrency = fromCurrency;
+        this.toAccountId = toAccountId;
+        this.toAccountName = toAccountName;
+        this.toCurrency = toCurrency;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public BigDecimal getFxRate() {
+        return fxRate;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public String getFromAccountName() {
+        return fromAccountName;
+    }
+
+    public String getFromCurrency() {
+        return fromCurrency;
+    }
+
+    public Long getToAccountId() {
+        return toAccountId;
+    }
+
+    public String getToAccountName() {
+        return toAccountName;
+    }
+
+    public String getToCurrency() {
+        return toCurrency;
+    }
+}
@@ -38,6 +38,10 @@ public class Account {
     @Column(precision = 14, scale = 2)
     private BigDecimal balance;
 
+    // Number of sub-balance slots credits are spread over; 0 disables striping
+    @Column(name = "hot_slots")
+    private Integer hotSlots = 0;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -104,6 +108,14 @@ public class Account {
         this.balance = balance;
     }
 
+    public Integer getHotSlots() {
+        return hotSlots;
+    }
+
+    public void setHotSlots(Integer hotSlots) {
+        this.hotSlots = hotSlots;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,69 @@
+package com.financialapp.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "account_balance_slots",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "slot"}))
+public class AccountBalanceSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @NotNull
+    private Integer slot;
+
+    @NotNull
+    @Column(precision = 14, scale = 2)
+    private BigDecimal balance;
+
+    // Constructors
+    public AccountBalanceSlot() {}
+
+    public AccountBalanceSlot(Long accountId, Integer slot, BigDecimal balance) {
+        this.accountId = accountId;
+        this.slot = slot;
+        this.balance = balance;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Integer getSlot() {
+        return slot;
+    }
+
+    public void setSlot(Integer slot) {
+        this.slot = slot;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,65 @@
+package com.financialapp.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic on amounts held as {@code long} minor units (cents/piasters).
+ * All columns are NUMERIC(14,2), so two decimal places always suffice.
+ * There are no Money instances: amounts stay primitive longs, so adding
+ * up a statement or a series allocates nothing. Bulk reads select
+ * {@link #minorUnitsSql} and use {@code ResultSet.getLong}; BigDecimal is
+ * only touched at the entity and JSON boundaries. Arithmetic is
+ * overflow-checked.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * @return {@code amount} in minor units
+     * @throws ArithmeticException if it has more than two decimal places or does not fit in a long
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            // For the usual scale of 2 this is one short-lived BigDecimal that escape analysis removes,
+            // where setScale().unscaledValue() builds a BigInteger
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Amount " + amount.toPlainString() + " must have at most " + SCALE
+                    + " decimal places and fit in range");
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * SQL for a NUMERIC(14,2) column or sum in minor units, to be read with
+     * {@code ResultSet.getLong}. The cast is exact at that scale.
+     */
+    public static String minorUnitsSql(String column) {
+        return "CAST((" + column + ") * 100 AS BIGINT)";
+    }
+
+    public static long plus(long minorUnits, long other) {
+        return Math.addExact(minorUnits, other);
+    }
+
+    public static long minus(long minorUnits, long other) {
+        return Math.subtractExact(minorUnits, other);
+    }
+
+    /**
+     * Multiplies by a rate, rounding half-even to the nearest minor unit.
+     */
+    public static long times(long minorUnits, BigDecimal rate) {
+        return BigDecimal.valueOf(minorUnits).multiply(rate)
+                .setScale(0, RoundingMode.HALF_EVEN)
+                .longValueExact();
+    }
+}
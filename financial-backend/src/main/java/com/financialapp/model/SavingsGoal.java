@@ -0,0 +1,127 @@
+package com.financialapp.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "savings_goals")
+public class SavingsGoal {
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_PAUSED = "PAUSED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    @NotNull
+    @Size(max = 120)
+    private String name;
+
+    @NotNull
+    @Column(name = "target_amount", precision = 14, scale = 2)
+    private BigDecimal targetAmount;
+
+    @NotNull
+    @Column(name = "current_amount", precision = 14, scale = 2)
+    private BigDecimal currentAmount = BigDecimal.ZERO;
+
+    private LocalDate deadline;
+
+    @NotNull
+    @Size(max = 20)
+    private String status = STATUS_ACTIVE;
+
+    // The user's account that holds the saved money and receives round-ups
+    @Column(name = "account_id")
+    private Long accountId;
+
+    // Spare change from the user's purchases is swept into this goal
+    @Column(name = "round_up")
+    private Boolean roundUp = false;
+
+    // Constructors
+    public SavingsGoal() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getTargetAmount() {
+        return targetAmount;
+    }
+
+    public void setTargetAmount(BigDecimal targetAmount) {
+        this.targetAmount = targetAmount;
+    }
+
+    public BigDecimal getCurrentAmount() {
+        return currentAmount;
+    }
+
+    public void setCurrentAmount(BigDecimal currentAmount) {
+        this.currentAmount = currentAmount;
+    }
+
+    public LocalDate getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(LocalDate deadline) {
+        this.deadline = deadline;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Boolean getRoundUp() {
+        return roundUp;
+    }
+
+    public void setRoundUp(Boolean roundUp) {
+        this.roundUp = roundUp;
+    }
+}
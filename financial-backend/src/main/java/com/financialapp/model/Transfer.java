@@ -11,6 +11,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "transfers")
 public class Transfer {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,15 +35,25 @@ public class Transfer {
     @Column(precision = 14, scale = 2)
     private BigDecimal amount;
 
+    @Column(name = "converted_amount", precision = 14, scale = 2)
+    private BigDecimal convertedAmount;
+
+    @Column(name = "fx_rate", precision = 18, scale = 8)
+    private BigDecimal fxRate;
+
     @Size(max = 255)
     private String description;
 
+    @Size(max = 20)
+    private String status;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
     // Constructors
     public Transfer() {
         this.createdAt = LocalDateTime.now();
+        this.status = STATUS_COMPLETED;
     }
 
     public Transfer(Long userId, Long fromAccountId, Long toAccountId, BigDecimal amount, String description) {
@@ -92,6 +106,22 @@ public class Transfer {
         this.amount = amount;
     }
 
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public void setConvertedAmount(BigDecimal convertedAmount) {
+        this.convertedAmount = convertedAmount;
+    }
+
+    public BigDecimal getFxRate() {
+        return fxRate;
+    }
+
+    public void setFxRate(BigDecimal fxRate) {
+        this.fxRate = fxRate;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -100,6 +130,14 @@ public class Transfer {
         this.description = description;
     }
 
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,88 @@
+package com.financialapp.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Credit side of a cross-shard transfer, stored on the destination
+ * account's shard so the recipient's history and statements can see it.
+ */
+@Entity
+@Table(name = "transfer_credits")
+public class TransferCredit {
+
+    public static final String STATUS_CREDITED = "CREDITED";
+    public static final String STATUS_VOIDED = "VOIDED";
+
+    @Id
+    @Column(name = "transfer_id")
+    private Long transferId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "from_account_id")
+    private Long fromAccountId;
+
+    @Column(precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "converted_amount", precision = 14, scale = 2)
+    private BigDecimal convertedAmount;
+
+    @Column(name = "fx_rate", precision = 18, scale = 8)
+    private BigDecimal fxRate;
+
+    private String description;
+
+    private String status;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Getters
+    public Long getTransferId() {
+        return transferId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public Long getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public BigDecimal getFxRate() {
+        return fxRate;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
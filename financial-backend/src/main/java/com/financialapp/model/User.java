@@ -1,5 +1,6 @@
 package com.financialapp.model;
 
+import com.financialapp.security.UserCacheListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -14,6 +15,7 @@ import java.util.Collections;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheListener.class)
 public class User implements UserDetails {
     
     @Id
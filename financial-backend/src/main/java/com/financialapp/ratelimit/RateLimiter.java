@@ -0,0 +1,84 @@
+package com.financialapp.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets keyed by client, spread over independent stripes so that a
+ * full stripe only has to be swept locally. Each stripe holds a bounded
+ * number of keys; when one is full, idle buckets are dropped first and then
+ * the least recently used one.
+ */
+public class RateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final int capacity;
+
+    private final double refillPerSecond;
+
+    private final int maxKeysPerStripe;
+
+    private final ConcurrentHashMap<String, TokenBucket>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(int capacity, double refillPerSecond, int maxKeys) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * @return 0 if the request may proceed, otherwise the nanoseconds to wait
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        ConcurrentHashMap<String, TokenBucket> stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        TokenBucket bucket = stripe.get(key);
+        if (bucket == null) {
+            if (stripe.size() >= maxKeysPerStripe) {
+                makeRoom(stripe, now);
+            }
+            bucket = stripe.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerSecond, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    public void evictIdle(long idleNanos) {
+        long cutoff = System.nanoTime() - idleNanos;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            stripe.values().removeIf(bucket -> bucket.isIdleSince(cutoff));
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private void makeRoom(ConcurrentHashMap<String, TokenBucket> stripe, long now) {
+        // A bucket whose arrival time is in the past has refilled completely
+        stripe.values().removeIf(bucket -> bucket.isIdleSince(now));
+        if (stripe.size() < maxKeysPerStripe) {
+            return;
+        }
+        String oldest = null;
+        long oldestActivity = Long.MAX_VALUE;
+        for (Map.Entry<String, TokenBucket> entry : stripe.entrySet()) {
+            if (entry.getValue().lastActivity() < oldestActivity) {
+                oldestActivity = entry.getValue().lastActivity();
+                oldest = entry.getKey();
+            }
+        }
+        if (oldest != null) {
+            stripe.remove(oldest);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.financialapp.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limits for transfers and auth, plus a concurrency
+ * bulkhead per request group so that a flood of one kind of request cannot
+ * take every worker thread and database connection from the others.
+ */
+@Component
+public class RequestGuardFilter extends OncePerRequestFilter {
+
+    enum RequestGroup { TRANSFERS, AUTH, READS }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${rate-limit.transfers.capacity}")
+    private int transferCapacity;
+
+    @Value("${rate-limit.transfers.refill-per-second}")
+    private double transferRefillPerSecond;
+
+    @Value("${rate-limit.auth.capacity}")
+    private int authCapacity;
+
+    @Value("${rate-limit.auth.refill-per-second}")
+    private double authRefillPerSecond;
+
+    @Value("${rate-limit.max-keys}")
+    private int maxKeys;
+
+    @Value("${rate-limit.idle-evict-seconds}")
+    private long idleEvictSeconds;
+
+    @Value("${bulkhead.transfers}")
+    private int transferPermits;
+
+    @Value("${bulkhead.auth}")
+    private int authPermits;
+
+    @Value("${bulkhead.reads}")
+    private int readPermits;
+
+    @Value("${bulkhead.max-wait-ms}")
+    private long maxWaitMs;
+
+    private final Map<RequestGroup, RateLimiter> rateLimiters = new EnumMap<>(RequestGroup.class);
+
+    private final Map<RequestGroup, Semaphore> bulkheads = new EnumMap<>(RequestGroup.class);
+
+    @PostConstruct
+    public void init() {
+        rateLimiters.put(RequestGroup.TRANSFERS, new RateLimiter(transferCapacity, transferRefillPerSecond, maxKeys));
+        rateLimiters.put(RequestGroup.AUTH, new RateLimiter(authCapacity, authRefillPerSecond, maxKeys));
+        bulkheads.put(RequestGroup.TRANSFERS, new Semaphore(transferPermits));
+        bulkheads.put(RequestGroup.AUTH, new Semaphore(authPermits));
+        bulkheads.put(RequestGroup.READS, new Semaphore(readPermits));
+        rateLimiters.forEach((group, limiter) -> Gauge.builder("rate.limit.keys", limiter, RateLimiter::size)
+                .tag("group", group.name().toLowerCase())
+                .register(meterRegistry));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestGroup group = classify(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter rateLimiter = rateLimiters.get(group);
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(clientKey(request));
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos));
+                reject(response, group, "rate_limit", HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                        "Too many requests, please retry later");
+                return;
+            }
+        }
+
+        Semaphore bulkhead = bulkheads.get(group);
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response, group, "bulkhead", HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "Server is busy, please retry later");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleClients() {
+        long idleNanos = TimeUnit.SECONDS.toNanos(idleEvictSeconds);
+        rateLimiters.values().forEach(limiter -> limiter.evictIdle(idleNanos));
+    }
+
+    private RequestGroup classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.startsWith("/auth/") && !path.equals("/auth/test")) {
+            return RequestGroup.AUTH;
+        }
+        if (path.startsWith("/transfers") && "POST".equals(request.getMethod())) {
+            return RequestGroup.TRANSFERS;
+        }
+        if ("GET".equals(request.getMethod()) && !path.startsWith("/actuator")) {
+            return RequestGroup.READS;
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, RequestGroup group, String reason, HttpStatus status,
+                        long retryAfterSeconds, String message) throws IOException {
+        meterRegistry.counter("requests.rejected", "group", group.name().toLowerCase(), "reason", reason).increment();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("message", message);
+
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,51 @@
+package com.financialapp.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one
+ * "theoretical arrival time", so taking a token is a single CAS and the
+ * bucket never allocates after construction.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+
+    private final long burstToleranceNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A bucket that has fully refilled carries no state worth keeping.
+     */
+    public boolean isIdleSince(long cutoffNanos) {
+        return theoreticalArrival.get() < cutoffNanos;
+    }
+
+    long lastActivity() {
+        return theoreticalArrival.get();
+    }
+}
@@ -0,0 +1,31 @@
+package com.financialapp.repository;
+
+import com.financialapp.model.AccountBalanceSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+
+    // Single statement, so a credit only ever locks its own slot row
+    @Modifying
+    @Query(value = "INSERT INTO account_balance_slots (account_id, slot, balance) VALUES (:accountId, :slot, :amount) "
+            + "ON CONFLICT (account_id, slot) DO UPDATE SET balance = account_balance_slots.balance + EXCLUDED.balance",
+            nativeQuery = true)
+    int credit(@Param("accountId") Long accountId, @Param("slot") int slot, @Param("amount") BigDecimal amount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AccountBalanceSlot s where s.accountId = :accountId")
+    List<AccountBalanceSlot> findByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    @Query("select distinct s.accountId from AccountBalanceSlot s where s.balance <> 0")
+    List<Long> findAccountIdsWithPendingBalance();
+}
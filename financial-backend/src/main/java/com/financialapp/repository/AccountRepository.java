@@ -1,12 +1,28 @@
 package com.financialapp.repository;
 
 import com.financialapp.model.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByUserId(Long userId);
+
+    /**
+     * Loads and locks the accounts of a transfer in id order, so opposite
+     * transfers cannot deadlock. Hot accounts other than the debited one are
+     * left out unlocked: they are credited through a slot, and locking their
+     * row would bring back the contention striping removes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids "
+            + "and (a.id = :debitedId or a.hotSlots is null or a.hotSlots = 0) order by a.id")
+    List<Account> lockForTransfer(@Param("ids") Collection<Long> ids, @Param("debitedId") Long debitedId);
 }
@@ -0,0 +1,29 @@
+package com.financialapp.repository;
+
+import com.financialapp.model.SavingsGoal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SavingsGoalRepository extends JpaRepository<SavingsGoal, Long> {
+    List<SavingsGoal> findByUserIdOrderByIdAsc(Long userId);
+
+    // Active round-up goals of many users in one statement; a user's oldest goal comes first
+    @Query("select g from SavingsGoal g where g.userId in :userIds and g.roundUp = true "
+            + "and g.status = 'ACTIVE' and g.accountId is not null order by g.id")
+    List<SavingsGoal> findActiveRoundUpGoals(@Param("userIds") Collection<Long> userIds);
+
+    // Completes the goal in the same statement once the target is reached
+    @Modifying
+    @Query("update SavingsGoal g set g.currentAmount = g.currentAmount + :amount, "
+            + "g.status = case when g.currentAmount + :amount >= g.targetAmount then 'COMPLETED' else g.status end "
+            + "where g.id = :id")
+    int addToCurrentAmount(@Param("id") Long id, @Param("amount") BigDecimal amount);
+}
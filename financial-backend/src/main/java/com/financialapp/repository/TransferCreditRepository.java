@@ -0,0 +1,43 @@
+package com.financialapp.repository;
+
+import com.financialapp.model.Transfer;
+import com.financialapp.model.TransferCredit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface TransferCreditRepository extends JpaRepository<TransferCredit, Long> {
+
+    /**
+     * Records the outcome of a cross-shard transfer on the destination shard
+     * unless one is already recorded.
+     *
+     * @return true if this call decided the outcome
+     */
+    default boolean claim(Transfer transfer, Long accountOwnerId, String status) {
+        return insertIfAbsent(transfer.getId(), accountOwnerId, transfer.getToAccountId(), transfer.getFromAccountId(),
+                transfer.getAmount(), transfer.getConvertedAmount(), transfer.getFxRate(),
+                transfer.getDescription(), status, transfer.getCreatedAt()) == 1;
+    }
+
+    @Modifying
+    @Query(value = "INSERT INTO transfer_credits (transfer_id, user_id, account_id, from_account_id, amount, "
+            + "converted_amount, fx_rate, description, status, created_at) "
+            + "VALUES (:transferId, :userId, :accountId, :fromAccountId, :amount, :convertedAmount, :fxRate, "
+            + ":description, :status, :createdAt) ON CONFLICT (transfer_id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("transferId") Long transferId, @Param("userId") Long userId,
+                       @Param("accountId") Long accountId, @Param("fromAccountId") Long fromAccountId,
+                       @Param("amount") BigDecimal amount, @Param("convertedAmount") BigDecimal convertedAmount,
+                       @Param("fxRate") BigDecimal fxRate, @Param("description") String description,
+                       @Param("status") String status, @Param("createdAt") LocalDateTime createdAt);
+
+    @Query("select c.status from TransferCredit c where c.transferId = :transferId")
+    String findStatus(@Param("transferId") Long transferId);
+}
@@ -2,11 +2,28 @@ package com.financialapp.repository;
 
 import com.financialapp.model.Transfer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, Long> {
     List<Transfer> findByUserId(Long userId);
+
+    // {createdAt, fromAccountId, userId, source currency, amount in minor units} of each transfer since
+    @Query("select t.createdAt, t.fromAccountId, t.userId, a.currency, cast(t.amount * 100 as Long) "
+            + "from Transfer t left join Account a on a.id = t.fromAccountId where t.createdAt > :since")
+    List<Object[]> findVelocitySince(@Param("since") LocalDateTime since);
+
+    // Settles a cross-shard transfer once; the saga and the reconciler may race for it
+    @Modifying
+    @Query("update Transfer t set t.status = :status where t.id = :id and t.status = 'PENDING'")
+    int settlePending(@Param("id") Long id, @Param("status") String status);
+
+    @Query("select t from Transfer t where t.status = 'PENDING' and t.createdAt < :before order by t.id")
+    List<Transfer> findPendingBefore(@Param("before") LocalDateTime before);
 }
@@ -2,8 +2,13 @@ package com.financialapp.repository;
 
 import com.financialapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     
     Boolean existsByEmail(String email);
+
+    // Used when sharding, where the id is allocated up front
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO users (id, email, username, password, phone_number, role, created_at, updated_at) "
+            + "VALUES (:id, :email, :username, :password, :phoneNumber, :role, :createdAt, :updatedAt)",
+            nativeQuery = true)
+    int insertWithId(@Param("id") Long id, @Param("email") String email, @Param("username") String username,
+                     @Param("password") String password, @Param("phoneNumber") String phoneNumber,
+                     @Param("role") String role, @Param("createdAt") LocalDateTime createdAt,
+                     @Param("updatedAt") LocalDateTime updatedAt);
 }
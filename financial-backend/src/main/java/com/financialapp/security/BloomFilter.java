@@ -0,0 +1,71 @@
+package com.financialapp.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. Adds and lookups are lock-free and
+ * may run concurrently; {@link #mightContain} never returns a false
+ * negative for a completed {@link #add}.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    public BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void add(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1, h2, i);
+            long mask = 1L << bit;
+            words.getAndAccumulate((int) (bit >>> 6), mask, (current, m) -> current | m);
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1, h2, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Double hashing: the i-th probe is h1 + i * h2
+    private long index(int h1, int h2, int i) {
+        long combined = h1 + (long) i * h2;
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 64-bit mix
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e20c9L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,67 @@
+package com.financialapp.security;
+
+import com.financialapp.model.Role;
+import com.financialapp.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable copy of a user row, as the sign-in cache holds and hands it
+ * out. Unlike the JPA entity it can be shared between requests: it is
+ * never attached to a persistence context and cannot be changed by a
+ * caller. Holds what sign-in and the auth responses need.
+ */
+public record CachedUser(Long id, String email, String passwordHash, Role role, String displayName,
+                         String phoneNumber) implements UserDetails {
+
+    public static CachedUser of(User user) {
+        return new CachedUser(user.getId(), user.getEmail(), user.getPassword(), user.getRole(),
+                user.getUsernameField(), user.getPhoneNumber());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    // Users sign in with their email
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    // Keeps the hash out of logs
+    @Override
+    public String toString() {
+        return "CachedUser[id=" + id + ", email=" + email + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,140 @@
+package com.financialapp.security;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.model.User;
+import com.financialapp.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Loads users for sign-in and for {@code UserService} lookups through a
+ * bounded in-memory cache keyed by id and email. Only an immutable
+ * {@link CachedUser} copy of the row is cached and returned, never the JPA
+ * entity; the password is still checked against its hash on every sign-in.
+ * JPA updates evict the user (see {@code UserCacheListener}), and entries
+ * expire after {@code user-cache.ttl-seconds} so that updates made by other
+ * instances are picked up. Lookups that find nothing are not cached.
+ */
+@Service
+public class CachedUserDetailsService implements UserDetailsService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user-cache.max-entries}")
+    private int maxEntries;
+
+    @Value("${user-cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    private UserCache cache;
+
+    private Counter hits;
+    private Counter misses;
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void init() {
+        cache = new UserCache(maxEntries, TimeUnit.SECONDS.toNanos(ttlSeconds));
+        hits = meterRegistry.counter("user.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("user.cache.requests", "result", "miss");
+        loadTimer = meterRegistry.timer("user.cache.load");
+        Gauge.builder("user.cache.size", cache, UserCache::size).register(meterRegistry);
+        Gauge.builder("user.cache.hit.ratio", this, CachedUserDetailsService::hitRatio).register(meterRegistry);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+    }
+
+    public Optional<CachedUser> findByEmail(String email) {
+        CachedUser cached = cache.getByEmail(email);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        return load(() -> findOnShards(email));
+    }
+
+    public Optional<CachedUser> findById(Long userId) {
+        CachedUser cached = cache.getById(userId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        return load(() -> {
+            try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+                return userRepository.findById(userId);
+            }
+        });
+    }
+
+    /**
+     * Drops the user now and again once the surrounding transaction commits,
+     * so that a read racing the update can't leave the old row cached.
+     */
+    public void evict(Long userId, String email) {
+        cache.invalidate(userId, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId, email);
+                }
+            });
+        }
+    }
+
+    private Optional<CachedUser> load(Supplier<Optional<User>> loader) {
+        long stamp = cache.loadStamp();
+        long start = System.nanoTime();
+        Optional<CachedUser> user = loader.get().map(CachedUser::of);
+        loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        user.ifPresent(u -> cache.put(u, stamp));
+        return user;
+    }
+
+    // Users are sharded by id, so an email lookup has to ask every shard
+    private Optional<User> findOnShards(String email) {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            try (ShardContext.Scope ignored = shardRouter.bindShard(shard)) {
+                Optional<User> user = userRepository.findByEmail(email);
+                if (user.isPresent()) {
+                    return user;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
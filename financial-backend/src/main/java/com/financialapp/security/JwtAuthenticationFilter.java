@@ -0,0 +1,86 @@
+package com.financialapp.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Authenticates requests that carry a bearer token. The token's signature
+ * and expiry are checked locally and its jti against the revocation list;
+ * nothing else touches the database. Requests without a token pass through
+ * unauthenticated. The /auth endpoints are skipped so that a client with an
+ * expired token can still sign in or refresh.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final ObjectMapper objectMapper;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, TokenRevocationService tokenRevocationService,
+                                   ObjectMapper objectMapper) {
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getServletPath().startsWith("/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith(BEARER)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtUtil.extractAllClaims(header.substring(BEARER.length()));
+        } catch (JwtException | IllegalArgumentException e) {
+            unauthorized(response, "Invalid or expired token");
+            return;
+        }
+        if (claims.getId() != null && tokenRevocationService.isRevoked(claims.getId())) {
+            unauthorized(response, "Token has been revoked");
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(claims.getSubject(), null, AuthorityUtils.NO_AUTHORITIES);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        filterChain.doFilter(request, response);
+    }
+
+    private void unauthorized(HttpServletResponse response, String message) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("message", message);
+
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,118 @@
+package com.financialapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Denylist of revoked access tokens, keyed by their jti. Every request
+ * checks an in-memory Bloom filter first; only a possible hit goes to the
+ * {@code revoked_tokens} table. Revocations made by other instances are
+ * picked up by polling for new rows. The filter is rebuilt from the table
+ * after expired rows are deleted, which is how entries leave it once
+ * their token could no longer be used anyway.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Rows can commit a little after their revoked_at, so each poll looks back this far
+    private static final long POLL_OVERLAP_MS = 5_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.revocation.expected-entries}")
+    private long expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+
+    private volatile Timestamp watermark = new Timestamp(0);
+
+    private Counter filterMisses;
+    private Counter confirmedRevoked;
+    private Counter falsePositives;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS revoked_tokens (jti VARCHAR(64) PRIMARY KEY, "
+                + "expires_at TIMESTAMP NOT NULL, revoked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at)");
+
+        filterMisses = meterRegistry.counter("auth.revocation.checks", "result", "filter_miss");
+        confirmedRevoked = meterRegistry.counter("auth.revocation.checks", "result", "revoked");
+        falsePositives = meterRegistry.counter("auth.revocation.checks", "result", "false_positive");
+        rebuild();
+    }
+
+    public void revoke(String jti, Date expiresAt) {
+        jdbcTemplate.update("INSERT INTO revoked_tokens (jti, expires_at) VALUES (?, ?) ON CONFLICT (jti) DO NOTHING",
+                jti, new Timestamp(expiresAt.getTime()));
+        filter.add(jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (!filter.mightContain(jti)) {
+            filterMisses.increment();
+            return false;
+        }
+        boolean revoked = !jdbcTemplate.queryForList("SELECT 1 FROM revoked_tokens WHERE jti = ?", jti).isEmpty();
+        (revoked ? confirmedRevoked : falsePositives).increment();
+        return revoked;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms}")
+    public void poll() {
+        BloomFilter current = filter;
+        Timestamp since = new Timestamp(watermark.getTime() - POLL_OVERLAP_MS);
+        jdbcTemplate.query("SELECT jti, revoked_at FROM revoked_tokens WHERE revoked_at > ?", rs -> {
+            current.add(rs.getString(1));
+            advanceWatermark(rs.getTimestamp(2));
+        }, since);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms}", initialDelayString = "${jwt.revocation.rebuild-interval-ms}")
+    public void rebuild() {
+        int expired = jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < CURRENT_TIMESTAMP");
+
+        BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+        int[] entries = {0};
+        jdbcTemplate.query("SELECT jti, revoked_at FROM revoked_tokens", rs -> {
+            rebuilt.add(rs.getString(1));
+            advanceWatermark(rs.getTimestamp(2));
+            entries[0]++;
+        });
+        filter = rebuilt;
+        // Catch revocations that landed in the old filter while this one was built
+        poll();
+
+        if (entries[0] > expectedEntries) {
+            logger.warn("{} revoked tokens exceed jwt.revocation.expected-entries ({}); false positives will rise",
+                    entries[0], expectedEntries);
+        }
+        logger.debug("Revocation filter rebuilt with {} entries, {} expired removed", entries[0], expired);
+    }
+
+    private void advanceWatermark(Timestamp revokedAt) {
+        if (revokedAt != null && revokedAt.after(watermark)) {
+            watermark = revokedAt;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.financialapp.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of {@link CachedUser} snapshots, held by id in independent stripes with a
+ * secondary email index. When a stripe is full, expired entries are
+ * dropped first and then the least recently used one. Loads started before
+ * an invalidation are not stored, so a slow read can't put back a row that
+ * an update has just replaced.
+ */
+public class UserCache {
+
+    private static final int STRIPES = 64;
+
+    private final int maxEntriesPerStripe;
+
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Long, Entry>[] stripes;
+
+    private final ConcurrentHashMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public UserCache(int maxEntries, long ttlNanos) {
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        this.ttlNanos = ttlNanos;
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    public CachedUser getById(Long id) {
+        Entry entry = stripe(id).get(id);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (entry.isExpired(now, ttlNanos)) {
+            remove(id, entry);
+            return null;
+        }
+        entry.lastUsed = now;
+        return entry.user;
+    }
+
+    public CachedUser getByEmail(String email) {
+        Long id = idsByEmail.get(email);
+        if (id == null) {
+            return null;
+        }
+        CachedUser user = getById(id);
+        return user != null && email.equals(user.email()) ? user : null;
+    }
+
+    /**
+     * Token to pass to {@link #put} for a load that is about to start.
+     */
+    public long loadStamp() {
+        return invalidations.get();
+    }
+
+    public void put(CachedUser user, long loadStamp) {
+        long now = System.nanoTime();
+        ConcurrentHashMap<Long, Entry> stripe = stripe(user.id());
+        if (stripe.size() >= maxEntriesPerStripe && !stripe.containsKey(user.id())) {
+            makeRoom(stripe, now);
+        }
+        stripe.put(user.id(), new Entry(user, now));
+        idsByEmail.put(user.email(), user.id());
+        // Undo the put if the user was invalidated while it was being loaded
+        if (invalidations.get() != loadStamp) {
+            invalidate(user.id(), user.email());
+        }
+    }
+
+    public void invalidate(Long id, String email) {
+        invalidations.incrementAndGet();
+        if (id != null) {
+            Entry entry = stripe(id).remove(id);
+            if (entry != null) {
+                idsByEmail.remove(entry.user.email(), id);
+            }
+        }
+        if (email != null) {
+            idsByEmail.remove(email);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<Long, Entry> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private ConcurrentHashMap<Long, Entry> stripe(Long id) {
+        return stripes[(Long.hashCode(id) & 0x7fffffff) % STRIPES];
+    }
+
+    private void remove(Long id, Entry entry) {
+        if (stripe(id).remove(id, entry)) {
+            idsByEmail.remove(entry.user.email(), id);
+        }
+    }
+
+    private void makeRoom(ConcurrentHashMap<Long, Entry> stripe, long now) {
+        for (Map.Entry<Long, Entry> candidate : stripe.entrySet()) {
+            if (candidate.getValue().isExpired(now, ttlNanos)) {
+                remove(candidate.getKey(), candidate.getValue());
+            }
+        }
+        if (stripe.size() < maxEntriesPerStripe) {
+            return;
+        }
+        Map.Entry<Long, Entry> oldest = null;
+        for (Map.Entry<Long, Entry> candidate : stripe.entrySet()) {
+            if (oldest == null || candidate.getValue().lastUsed < oldest.getValue().lastUsed) {
+                oldest = candidate;
+            }
+        }
+        if (oldest != null) {
+            remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private static final class Entry {
+        final CachedUser user;
+        final long loadedAt;
+        volatile long lastUsed;
+
+        Entry(CachedUser user, long now) {
+            this.user = user;
+            this.loadedAt = now;
+            this.lastUsed = now;
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - loadedAt > ttlNanos;
+        }
+    }
+}
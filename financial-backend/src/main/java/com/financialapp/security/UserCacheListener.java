@@ -0,0 +1,30 @@
+package com.financialapp.security;
+
+import com.financialapp.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a user from the sign-in cache whenever JPA updates or deletes the
+ * row, which covers password and role changes. Native and bulk updates
+ * bypass it and are only picked up when the entry expires.
+ */
+@Component
+public class UserCacheListener {
+
+    // Looked up lazily: Hibernate creates the listener before the repositories exist
+    @Autowired
+    private ObjectProvider<CachedUserDetailsService> userDetailsService;
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        CachedUserDetailsService service = userDetailsService.getIfAvailable();
+        if (service != null) {
+            service.evict(user.getId(), user.getEmail());
+        }
+    }
+}
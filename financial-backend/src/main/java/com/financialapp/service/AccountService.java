@@ -1,9 +1,12 @@
 package com.financialapp.service;
 
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
 import com.financialapp.model.Account;
 import com.financialapp.repository.AccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,11 +16,24 @@ public class AccountService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Transactional(readOnly = true)
     public List<Account> getAccountsByUserId(Long userId) {
-        return accountRepository.findByUserId(userId);
+        try (ShardContext.Scope ignored = shardRouter.bindUserOnPrimary(userId)) {
+            return accountRepository.findByUserId(userId);
+        }
     }
 
+    // Not transactional: the owning shard has to be found before a connection is taken
     public Account getAccountById(Long accountId) {
-        return accountRepository.findById(accountId).orElse(null);
+        Integer shard = shardRouter.locateAccount(accountId, 0);
+        if (shard == null) {
+            return null;
+        }
+        try (ShardContext.Scope ignored = shardRouter.bindShard(shard)) {
+            return accountRepository.findById(accountId).orElse(null);
+        }
     }
 }
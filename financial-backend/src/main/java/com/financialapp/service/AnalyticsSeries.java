@@ -0,0 +1,122 @@
+package com.financialapp.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One user's transaction totals in day buckets, one primitive column per
+ * category and direction (amounts in minor units). The day range grows at
+ * either end as transactions outside it arrive, with some slack so that a
+ * day-by-day series does not copy its columns on every new day. Not
+ * thread-safe; the owner synchronizes.
+ */
+final class AnalyticsSeries {
+
+    private static final int MIN_SLACK_DAYS = 32;
+
+    private final Map<String, Integer> categoryIndex = new HashMap<>();
+
+    private String[] categories = new String[0];
+
+    // debits[c][d] and credits[c][d]: category c on day firstDay + d
+    private long[][] debits = new long[0][];
+    private long[][] credits = new long[0][];
+
+    private long firstDay;
+
+    private int capacity;
+
+    void add(long epochDay, String category, boolean debit, long amount) {
+        int c = categoryIndex(category);
+        int d = dayIndex(epochDay);
+        if (debit) {
+            debits[c][d] += amount;
+        } else {
+            credits[c][d] += amount;
+        }
+    }
+
+    /** Sum over days [fromDay, toDay) of every category */
+    long total(boolean debit, long fromDay, long toDay) {
+        long sum = 0;
+        for (long[] column : debit ? debits : credits) {
+            sum += sum(column, fromDay, toDay);
+        }
+        return sum;
+    }
+
+    /** Per-category sums over days [fromDay, toDay), indexed like {@link #categories()} */
+    long[] totalsByCategory(boolean debit, long fromDay, long toDay) {
+        long[][] columns = debit ? debits : credits;
+        long[] totals = new long[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            totals[c] = sum(columns[c], fromDay, toDay);
+        }
+        return totals;
+    }
+
+    String[] categories() {
+        return categories;
+    }
+
+    /** Approximate heap footprint, used against the cache's memory budget */
+    long bytes() {
+        return 2L * categories.length * (16 + 8L * capacity) + 64L * categories.length + 128;
+    }
+
+    private long sum(long[] column, long fromDay, long toDay) {
+        int from = (int) Math.max(0, fromDay - firstDay);
+        int to = (int) Math.min(capacity, toDay - firstDay);
+        long sum = 0;
+        for (int d = from; d < to; d++) {
+            sum += column[d];
+        }
+        return sum;
+    }
+
+    private int categoryIndex(String category) {
+        Integer index = categoryIndex.get(category);
+        if (index != null) {
+            return index;
+        }
+        int c = categories.length;
+        categories = Arrays.copyOf(categories, c + 1);
+        categories[c] = category;
+        debits = Arrays.copyOf(debits, c + 1);
+        credits = Arrays.copyOf(credits, c + 1);
+        debits[c] = new long[capacity];
+        credits[c] = new long[capacity];
+        categoryIndex.put(category, c);
+        return c;
+    }
+
+    private int dayIndex(long epochDay) {
+        if (capacity == 0) {
+            firstDay = epochDay - MIN_SLACK_DAYS;
+            resize(firstDay, 2 * MIN_SLACK_DAYS);
+        } else if (epochDay < firstDay) {
+            long newFirst = epochDay - Math.max(MIN_SLACK_DAYS, capacity / 4);
+            resize(newFirst, (int) (firstDay + capacity - newFirst));
+        } else if (epochDay >= firstDay + capacity) {
+            resize(firstDay, (int) (epochDay - firstDay + 1 + Math.max(MIN_SLACK_DAYS, capacity / 4)));
+        }
+        return (int) (epochDay - firstDay);
+    }
+
+    private void resize(long newFirstDay, int newCapacity) {
+        int offset = (int) (firstDay - newFirstDay);
+        for (int c = 0; c < categories.length; c++) {
+            debits[c] = moved(debits[c], offset, newCapacity);
+            credits[c] = moved(credits[c], offset, newCapacity);
+        }
+        firstDay = newFirstDay;
+        capacity = newCapacity;
+    }
+
+    private static long[] moved(long[] column, int offset, int newCapacity) {
+        long[] copy = new long[newCapacity];
+        System.arraycopy(column, 0, copy, offset, column.length);
+        return copy;
+    }
+}
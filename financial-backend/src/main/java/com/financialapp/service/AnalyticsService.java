@@ -0,0 +1,353 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.model.Money;
+import com.financialapp.model.Transaction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Income/expense time series and category breakdowns for the Balance and
+ * Budget screens, answered from in-memory {@link AnalyticsSeries} per
+ * active user and currency instead of a GROUP BY over their transactions.
+ * Amounts are never summed across currencies; each row carries the
+ * currency of the accounts it covers. A user's series are built on first
+ * use from one keyset scan, then kept current
+ * from committed inserts. Series are evicted least recently used first
+ * once they take more than {@code analytics.max-memory-mb}.
+ *
+ * <p>A transaction committed while a series is being built may or may not
+ * be in the scan, so such a series is served once and not cached.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final String ACCOUNTS_SQL = "SELECT id, currency FROM accounts WHERE user_id = ?";
+
+    private static final String SCAN_SQL = "SELECT t.id, t.occurred_at, t.txn_type, t.category, "
+            + Money.minorUnitsSql("t.amount") + ", t.account_id, a.currency "
+            + "FROM transactions t JOIN accounts a ON a.id = t.account_id "
+            + "WHERE t.user_id = ? AND t.id > ? ORDER BY t.id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${analytics.max-memory-mb}")
+    private long maxMemoryMb;
+
+    @Value("${analytics.scan-batch-size}")
+    private int scanBatchSize;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void init() {
+        loadTimer = meterRegistry.timer("analytics.cache.load");
+        Gauge.builder("analytics.cache.bytes", usedBytes, AtomicLong::get).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("analytics.cache.users", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * @return income, expense and net per month and currency from {@code from} to {@code to}, both inclusive
+     */
+    public List<Map<String, Object>> getCashFlow(Long userId, YearMonth from, YearMonth to) {
+        List<Map<String, Object>> months = new ArrayList<>();
+        read(userId, user -> {
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                long start = month.atDay(1).toEpochDay();
+                long end = month.plusMonths(1).atDay(1).toEpochDay();
+                for (Map.Entry<String, AnalyticsSeries> currency : user.byCurrency.entrySet()) {
+                    long income = currency.getValue().total(false, start, end);
+                    long expense = currency.getValue().total(true, start, end);
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("month", month.toString());
+                    row.put("currency", currency.getKey());
+                    row.put("income", Money.toBigDecimal(income));
+                    row.put("expense", Money.toBigDecimal(expense));
+                    row.put("net", Money.toBigDecimal(income - expense));
+                    months.add(row);
+                }
+            }
+        });
+        return months;
+    }
+
+    /**
+     * @return DEBIT (or CREDIT) totals per currency and category from {@code from} to {@code to}, both
+     * inclusive, largest first within each currency
+     */
+    public List<Map<String, Object>> getCategoryBreakdown(Long userId, LocalDate from, LocalDate to, boolean debit) {
+        List<Map<String, Object>> categories = new ArrayList<>();
+        read(userId, user -> {
+            for (Map.Entry<String, AnalyticsSeries> currency : user.byCurrency.entrySet()) {
+                AnalyticsSeries series = currency.getValue();
+                long[] totals = series.totalsByCategory(debit, from.toEpochDay(), to.toEpochDay() + 1);
+                String[] names = series.categories();
+                Integer[] order = new Integer[totals.length];
+                for (int c = 0; c < order.length; c++) {
+                    order[c] = c;
+                }
+                Arrays.sort(order, Comparator.comparingLong((Integer c) -> totals[c]).reversed());
+                for (int c : order) {
+                    if (totals[c] != 0) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        row.put("currency", currency.getKey());
+                        row.put("category", names[c]);
+                        row.put("amount", Money.toBigDecimal(totals[c]));
+                        categories.add(row);
+                    }
+                }
+            }
+        });
+        return categories;
+    }
+
+    /** Adds a newly inserted transaction to its user's series once the surrounding transaction commits */
+    public void onTransaction(Transaction transaction) {
+        List<Transaction> committed = List.of(transaction);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    onCommitted(committed);
+                }
+            });
+        } else {
+            onCommitted(committed);
+        }
+    }
+
+    /** Adds transactions whose insert has already committed */
+    public void onCommitted(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            Entry entry = entries.get(transaction.getUserId());
+            if (entry == null) {
+                continue;
+            }
+            synchronized (entry) {
+                if (entry.series == null) {
+                    entry.dirty = true;
+                } else if (!entry.removed) {
+                    if (entry.series.add(transaction.getAccountId(),
+                            transaction.getOccurredAt().toLocalDate().toEpochDay(), transaction.getCategory(),
+                            "DEBIT".equals(transaction.getTxnType()), Money.toMinorUnits(transaction.getAmount()))) {
+                        account(entry);
+                    } else {
+                        // An account opened after the build; rebuild to learn its currency
+                        remove(transaction.getUserId(), entry);
+                    }
+                }
+            }
+        }
+        makeRoomIfNeeded();
+    }
+
+    /** Drops the user's series after changes that are not plain inserts, e.g. recategorization */
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void read(Long userId, Consumer<UserSeries> reader) {
+        Entry entry = entries.get(userId);
+        if (entry != null) {
+            synchronized (entry) {
+                if (entry.series != null && !entry.removed) {
+                    entry.lastUsed = System.nanoTime();
+                    meterRegistry.counter("analytics.cache.requests", "result", "hit").increment();
+                    reader.accept(entry.series);
+                    return;
+                }
+            }
+        }
+        meterRegistry.counter("analytics.cache.requests", "result", "miss").increment();
+
+        Entry loading = new Entry();
+        boolean owner = entries.putIfAbsent(userId, loading) == null;
+        UserSeries series;
+        try {
+            series = loadTimer.record(() -> scan(userId));
+        } catch (RuntimeException e) {
+            if (owner) {
+                entries.remove(userId, loading);
+            }
+            throw e;
+        }
+        reader.accept(series);
+
+        // Another request is already building this user's series; let it install its own
+        if (!owner) {
+            return;
+        }
+        synchronized (loading) {
+            if (loading.dirty) {
+                entries.remove(userId, loading);
+                return;
+            }
+            loading.series = series;
+            loading.lastUsed = System.nanoTime();
+            account(loading);
+        }
+        makeRoomIfNeeded();
+    }
+
+    private UserSeries scan(Long userId) {
+        UserSeries series = new UserSeries();
+        long[] lastId = {0};
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            int rows;
+            do {
+                long after = lastId[0];
+                rows = jdbcTemplate.query(SCAN_SQL, rs -> {
+                    int count = 0;
+                    while (rs.next()) {
+                        lastId[0] = rs.getLong(1);
+                        series.accountCurrencies.put(rs.getLong(6), rs.getString(7));
+                        series.add(rs.getLong(6), rs.getTimestamp(2).toLocalDateTime().toLocalDate().toEpochDay(),
+                                rs.getString(4), "DEBIT".equals(rs.getString(3)), rs.getLong(5));
+                        count++;
+                    }
+                    return count;
+                }, userId, after, scanBatchSize);
+            } while (rows == scanBatchSize);
+            // Accounts without transactions yet, so their first one can be added without a rebuild
+            jdbcTemplate.query(ACCOUNTS_SQL, rs -> {
+                series.accountCurrencies.put(rs.getLong(1), rs.getString(2));
+            }, userId);
+        }
+        return series;
+    }
+
+    // Caller holds the entry's lock
+    private void account(Entry entry) {
+        long bytes = entry.series.bytes();
+        usedBytes.addAndGet(bytes - entry.bytes);
+        entry.bytes = bytes;
+    }
+
+    private void evict(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            entry.dirty = true;
+            remove(userId, entry);
+        }
+    }
+
+    // Caller holds the entry's lock
+    private void remove(Long userId, Entry entry) {
+        if (entries.remove(userId, entry)) {
+            entry.removed = true;
+            usedBytes.addAndGet(-entry.bytes);
+        }
+    }
+
+    /** Evicts the least recently used series until the cache is back to 90% of its budget */
+    private void makeRoomIfNeeded() {
+        long budget = maxMemoryMb * 1024 * 1024;
+        if (usedBytes.get() <= budget || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Snapshot the access times so that the sort sees stable keys
+            List<Candidate> candidates = new ArrayList<>();
+            entries.forEach((userId, entry) -> candidates.add(new Candidate(userId, entry, entry.lastUsed)));
+            candidates.sort(Comparator.comparingLong(Candidate::lastUsed));
+            for (Candidate candidate : candidates) {
+                if (usedBytes.get() <= budget * 9 / 10) {
+                    break;
+                }
+                synchronized (candidate.entry()) {
+                    if (candidate.entry().series != null) {
+                        remove(candidate.userId(), candidate.entry());
+                    }
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Candidate(Long userId, Entry entry, long lastUsed) {
+    }
+
+    /** One series per currency, plus the currency of each of the user's accounts */
+    private static final class UserSeries {
+        final Map<Long, String> accountCurrencies = new HashMap<>();
+        final Map<String, AnalyticsSeries> byCurrency = new TreeMap<>();
+
+        /** @return false if the account is not one this series knows */
+        boolean add(long accountId, long epochDay, String category, boolean debit, long amount) {
+            String currency = accountCurrencies.get(accountId);
+            if (currency == null) {
+                return false;
+            }
+            byCurrency.computeIfAbsent(currency, c -> new AnalyticsSeries()).add(epochDay, category, debit, amount);
+            return true;
+        }
+
+        long bytes() {
+            long bytes = 64L * accountCurrencies.size() + 64;
+            for (AnalyticsSeries series : byCurrency.values()) {
+                bytes += series.bytes();
+            }
+            return bytes;
+        }
+    }
+
+    private static final class Entry {
+        // Null while the series is being built
+        UserSeries series;
+        // A change committed during the build; the result must not be cached
+        boolean dirty;
+        boolean removed;
+        long bytes;
+        volatile long lastUsed;
+    }
+}
@@ -0,0 +1,173 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.model.Money;
+import com.financialapp.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raises a BUDGET notification the first time spending in a category
+ * crosses each threshold of its monthly budget. Every DEBIT adds to
+ * {@code budgets.spent} with one atomic increment, whose result is
+ * compared with the thresholds, so the month's transactions are never
+ * summed again. A notification is only written together with a row in
+ * {@code budget_alerts}, whose key makes it happen once per budget and
+ * threshold across restarts, instances and concurrent inserts. The
+ * increment finds the budget itself and returns the highest threshold
+ * already alerted, so nothing about budgets is cached: a budget created
+ * outside the app counts from the next debit, and a debit in a category
+ * without a budget costs one update that matches no row.
+ */
+@Service
+public class BudgetAlertService {
+
+    private static final String ADD_SPENT_SQL = "UPDATE budgets b SET spent = spent + ? "
+            + "WHERE b.user_id = ? AND b.category = ? AND b.month = ? AND b.year = ? "
+            + "RETURNING b.id, b.spent, b.monthly_limit, "
+            + "COALESCE((SELECT MAX(a.threshold) FROM budget_alerts a WHERE a.budget_id = b.id), 0)";
+
+    private static final String SUBTRACT_SPENT_SQL = "UPDATE budgets SET spent = spent - ? "
+            + "WHERE user_id = ? AND category = ? AND month = ? AND year = ?";
+
+    // The notification is only inserted when the budget_alerts row is new
+    private static final String ALERT_SQL = """
+            WITH alert AS (
+                INSERT INTO budget_alerts (budget_id, threshold, user_id) VALUES (?, ?, ?)
+                ON CONFLICT DO NOTHING RETURNING user_id
+            )
+            INSERT INTO notifications (user_id, title, body, notif_type)
+            SELECT user_id, 'Budget alert', ?, 'BUDGET' FROM alert
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${budget-alerts.thresholds}")
+    private int[] thresholds;
+
+    // Not mapped as an entity, so Hibernate's schema update does not create it
+    @PostConstruct
+    public void init() {
+        Arrays.sort(thresholds);
+        shardRouter.forEachShard(shard -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS budget_alerts ("
+                    + "budget_id BIGINT NOT NULL REFERENCES budgets(id) ON DELETE CASCADE, threshold INT NOT NULL, "
+                    + "user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE, "
+                    + "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, PRIMARY KEY (budget_id, threshold))");
+            // Tables created before user_id was added; the shard rebalancer moves rows by user_id
+            jdbcTemplate.execute("DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.columns "
+                    + "WHERE table_schema = current_schema() AND table_name = 'budget_alerts' "
+                    + "AND column_name = 'user_id') THEN "
+                    + "ALTER TABLE budget_alerts ADD COLUMN user_id BIGINT REFERENCES users(id) ON DELETE CASCADE; "
+                    + "UPDATE budget_alerts a SET user_id = b.user_id FROM budgets b WHERE b.id = a.budget_id; "
+                    + "ALTER TABLE budget_alerts ALTER COLUMN user_id SET NOT NULL; END IF; END $$");
+        });
+    }
+
+    /**
+     * Counts a newly inserted transaction against its budget. Must run in
+     * the inserting transaction on the user's shard.
+     */
+    public void onTransaction(Transaction transaction) {
+        if (!"DEBIT".equals(transaction.getTxnType())) {
+            return;
+        }
+        addSpending(jdbcTemplate, transaction.getUserId(), transaction.getCategory(), transaction.getOccurredAt(),
+                Money.toMinorUnits(transaction.getAmount()));
+    }
+
+    /**
+     * Counts a batch of transactions written on {@code connection}, one
+     * increment per budget, in the connection's transaction.
+     */
+    public void onTransactions(Connection connection, List<Transaction> transactions) {
+        Map<Spending, Long> totals = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if ("DEBIT".equals(transaction.getTxnType())) {
+                LocalDateTime at = transaction.getOccurredAt();
+                totals.merge(new Spending(new UserMonth(transaction.getUserId(), at.getYear(), at.getMonthValue()),
+                        transaction.getCategory()), Money.toMinorUnits(transaction.getAmount()), Math::addExact);
+            }
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        totals.forEach((spending, amount) -> addSpending(jdbc, spending.month.userId, spending.category,
+                LocalDateTime.of(spending.month.year, spending.month.month, 1, 0, 0), amount));
+    }
+
+    /**
+     * Moves the spending of recategorized DEBIT transactions from their old
+     * category's budget to their new one, notifying any threshold the new
+     * budget crosses. Must run in the recategorizing transaction on the
+     * users' shard.
+     */
+    public void onRecategorized(List<Recategorized> changes) {
+        Map<Spending, Long> deltas = new HashMap<>();
+        for (Recategorized change : changes) {
+            UserMonth month = new UserMonth(change.userId(), change.occurredAt().getYear(),
+                    change.occurredAt().getMonthValue());
+            deltas.merge(new Spending(month, change.from()), -change.amount(), Math::addExact);
+            deltas.merge(new Spending(month, change.to()), change.amount(), Math::addExact);
+        }
+        deltas.forEach((spending, amount) -> {
+            if (amount < 0) {
+                jdbcTemplate.update(SUBTRACT_SPENT_SQL, Money.toBigDecimal(-amount), spending.month.userId,
+                        spending.category, spending.month.month, spending.month.year);
+            } else {
+                addSpending(jdbcTemplate, spending.month.userId, spending.category,
+                        LocalDateTime.of(spending.month.year, spending.month.month, 1, 0, 0), amount);
+            }
+        });
+    }
+
+    private void addSpending(JdbcTemplate jdbc, Long userId, String category, LocalDateTime at, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        List<Spent> updated = jdbc.query(ADD_SPENT_SQL, (rs, rowNum) -> new Spent(rs.getLong(1),
+                        Money.toMinorUnits(rs.getBigDecimal(2)), Money.toMinorUnits(rs.getBigDecimal(3)), rs.getInt(4)),
+                Money.toBigDecimal(amount), userId, category, at.getMonthValue(), at.getYear());
+        if (updated.isEmpty()) {
+            return;
+        }
+        Spent budget = updated.get(0);
+        for (int threshold : thresholds) {
+            if (threshold <= budget.alertedThreshold()) {
+                continue;
+            }
+            if (budget.spent() * 100 < threshold * budget.limit()) {
+                break;
+            }
+            jdbc.update(ALERT_SQL, budget.id(), threshold, userId,
+                    "You have spent " + threshold + "% of your " + category + " budget");
+        }
+    }
+
+    /** A DEBIT of {@code amount} minor units moved from category {@code from} to {@code to} */
+    public record Recategorized(Long userId, LocalDateTime occurredAt, String from, String to, long amount) {
+    }
+
+    private record UserMonth(Long userId, int year, int month) {
+    }
+
+    private record Spending(UserMonth month, String category) {
+    }
+
+    // A budget after an increment; alertedThreshold only saves inserts, budget_alerts decides
+    private record Spent(long id, long spent, long limit, int alertedThreshold) {
+    }
+}
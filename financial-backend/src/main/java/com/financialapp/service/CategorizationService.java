@@ -0,0 +1,232 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.model.Money;
+import com.financialapp.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns transaction categories from their description using the keyword
+ * rules in {@code category_rules} (for example "uber" to Transport). All
+ * rules are compiled into one {@link KeywordAutomaton}, so classifying a
+ * description costs one pass over it however many rules there are. The
+ * compiled automaton is replaced wholesale when the rules change and
+ * readers only dereference a volatile field.
+ */
+@Service
+public class CategorizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorizationService.class);
+
+    private static final String FINGERPRINT_SQL = "SELECT md5(COALESCE(string_agg("
+            + "id || ':' || keyword || ':' || category || ':' || priority, ',' ORDER BY id), '')) FROM category_rules";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private BudgetAlertService budgetAlertService;
+
+    @Value("${categorization.default-category}")
+    private String defaultCategory;
+
+    @Value("${categorization.recategorize.partition-size}")
+    private long partitionSize;
+
+    @Value("${categorization.recategorize.parallelism}")
+    private int parallelism;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Rules rules = new Rules(KeywordAutomaton.compile(List.of()), "");
+
+    public CategorizationService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Rules are global and live on shard 0; not mapped as an entity
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS category_rules (id BIGSERIAL PRIMARY KEY, "
+                + "keyword VARCHAR(100) NOT NULL UNIQUE, category VARCHAR(50) NOT NULL, "
+                + "priority INT NOT NULL DEFAULT 0)");
+        reloadIfChanged();
+    }
+
+    /**
+     * @return the category of the best rule matching {@code description}, or the default category
+     */
+    public String categorize(String description) {
+        String category = rules.automaton.match(description);
+        return category != null ? category : defaultCategory;
+    }
+
+    /** Fills in the category of a transaction that was written without one */
+    public void applyTo(Transaction transaction) {
+        if (transaction.getCategory() == null || transaction.getCategory().isBlank()) {
+            transaction.setCategory(categorize(transaction.getDescription()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${categorization.reload-interval-ms}")
+    public void reloadIfChanged() {
+        try (ShardContext.Scope ignored = shardRouter.bindShard(0)) {
+            String fingerprint = jdbcTemplate.queryForObject(FINGERPRINT_SQL, String.class);
+            if (Objects.equals(fingerprint, rules.fingerprint)) {
+                return;
+            }
+            long started = System.nanoTime();
+            List<KeywordAutomaton.Keyword> keywords = jdbcTemplate.query(
+                    "SELECT keyword, category, priority FROM category_rules ORDER BY id",
+                    (rs, rowNum) -> new KeywordAutomaton.Keyword(rs.getString(1), rs.getString(2), rs.getInt(3)));
+            rules = new Rules(KeywordAutomaton.compile(keywords), fingerprint);
+            logger.info("Compiled {} category rules in {} ms", keywords.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            // Keep classifying with the previous rules
+            logger.error("Could not reload category rules: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-applies the current rules to existing transactions, in id ranges
+     * processed in parallel on every shard. With {@code all} false only
+     * transactions in the default category are looked at. A transaction
+     * whose description matches no rule keeps its category. A recategorized
+     * DEBIT moves its amount to the budget of its new category.
+     */
+    public RecategorizationResult recategorize(boolean all) throws InterruptedException {
+        long started = System.nanoTime();
+        AtomicLong scanned = new AtomicLong();
+        AtomicLong updated = new AtomicLong();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Partition partition : planPartitions()) {
+            tasks.add(() -> {
+                recategorizePartition(partition, all, scanned, updated);
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Recategorization failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        RecategorizationResult result = new RecategorizationResult(scanned.get(), updated.get(),
+                (System.nanoTime() - started) / 1e9);
+        logger.info("Recategorized {} of {} transactions in {}s ({} partitions)",
+                result.updated(), result.scanned(), Math.round(result.seconds()), tasks.size());
+        return result;
+    }
+
+    private List<Partition> planPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        shardRouter.forEachShard(shard -> {
+            Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM transactions");
+            if (bounds.get("lo") == null) {
+                return;
+            }
+            long lo = ((Number) bounds.get("lo")).longValue();
+            long hi = ((Number) bounds.get("hi")).longValue();
+            for (long from = lo; from <= hi; from += partitionSize) {
+                partitions.add(new Partition(shard, from, from + partitionSize));
+            }
+        });
+        return partitions;
+    }
+
+    // One transaction per range, so its updates and change log entries commit together
+    private void recategorizePartition(Partition partition, boolean all, AtomicLong scanned, AtomicLong updated) {
+        try (ShardContext.Scope ignored = shardRouter.bindShard(partition.shard())) {
+            transactionTemplate.executeWithoutResult(status -> {
+                String sql = "SELECT id, user_id, category, description, txn_type, amount, occurred_at "
+                        + "FROM transactions "
+                        + "WHERE id >= ? AND id < ? AND description IS NOT NULL"
+                        + (all ? "" : " AND category = ?");
+                Object[] args = all
+                        ? new Object[]{partition.from(), partition.to()}
+                        : new Object[]{partition.from(), partition.to(), defaultCategory};
+
+                List<Object[]> changes = new ArrayList<>();
+                List<BudgetAlertService.Recategorized> debits = new ArrayList<>();
+                Set<Long> userIds = new HashSet<>();
+                jdbcTemplate.query(sql, rs -> {
+                    scanned.incrementAndGet();
+                    String category = rules.automaton.match(rs.getString(4));
+                    if (category != null && !category.equals(rs.getString(3))) {
+                        long id = rs.getLong(1);
+                        long userId = rs.getLong(2);
+                        changes.add(new Object[]{category, id});
+                        changeLogService.recordUpsert(userId, ChangeLogService.TRANSACTION, id);
+                        userIds.add(userId);
+                        if ("DEBIT".equals(rs.getString(5))) {
+                            debits.add(new BudgetAlertService.Recategorized(userId,
+                                    rs.getTimestamp(7).toLocalDateTime(), rs.getString(3), category,
+                                    Money.toMinorUnits(rs.getBigDecimal(6))));
+                        }
+                    }
+                }, args);
+
+                if (!changes.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE transactions SET category = ? WHERE id = ?", changes);
+                    updated.addAndGet(changes.size());
+                    userIds.forEach(dataVersionService::markChanged);
+                    userIds.forEach(analyticsService::invalidate);
+                    budgetAlertService.onRecategorized(debits);
+                }
+            });
+        }
+    }
+
+    private record Partition(int shard, long from, long to) {
+    }
+
+    private record Rules(KeywordAutomaton automaton, String fingerprint) {
+    }
+
+    public record RecategorizationResult(long scanned, long updated, double seconds) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Per-user change log behind delta sync. Every write path records the
+ * rows it touched; each entry gets the next number in its user's sequence.
+ * <p>
+ * Sequence numbers come from the user's {@code change_log_heads} row, whose
+ * lock is held until commit. Commits for one user therefore become visible
+ * in sequence order, and a client that has seen number n has seen every
+ * change before it. Entries are buffered for the transaction and written
+ * just before commit, sorted by user, so the head locks are short and are
+ * always taken in the same order.
+ */
+@Service
+public class ChangeLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogService.class);
+
+    public static final String ACCOUNT = "ACCOUNT";
+    public static final String TRANSACTION = "TRANSACTION";
+    public static final String TRANSFER = "TRANSFER";
+
+    // The API never deletes accounts, transactions or transfers, so every entry is an upsert
+    public static final String OP_UPSERT = "UPSERT";
+
+    private static final String APPEND_SQL = """
+            WITH head AS (
+                INSERT INTO change_log_heads (user_id, last_seq) VALUES (?, 1)
+                ON CONFLICT (user_id) DO UPDATE SET last_seq = change_log_heads.last_seq + 1
+                RETURNING last_seq
+            )
+            INSERT INTO change_log (user_id, seq, entity, entity_id, op)
+            SELECT ?, last_seq, ?, ?, ? FROM head
+            """;
+
+    private static final String APPEND_IMPORTED_SQL = """
+            WITH new_rows AS (
+                SELECT id, user_id, row_number() OVER (PARTITION BY user_id ORDER BY id) AS rn
+                FROM transactions WHERE id > ?
+            ),
+            counts AS (
+                SELECT user_id, COUNT(*) AS n FROM new_rows GROUP BY user_id
+            ),
+            heads AS (
+                INSERT INTO change_log_heads (user_id, last_seq)
+                SELECT user_id, n FROM counts ORDER BY user_id
+                ON CONFLICT (user_id) DO UPDATE SET last_seq = change_log_heads.last_seq + EXCLUDED.last_seq
+                RETURNING user_id, last_seq
+            )
+            INSERT INTO change_log (user_id, seq, entity, entity_id, op)
+            SELECT r.user_id, h.last_seq - c.n + r.rn, 'TRANSACTION', r.id, 'UPSERT'
+            FROM new_rows r
+            JOIN counts c ON c.user_id = r.user_id
+            JOIN heads h ON h.user_id = r.user_id
+            """;
+
+    private static final String PRUNE_SQL = """
+            WITH pruned AS (
+                DELETE FROM change_log WHERE changed_at < ? RETURNING user_id, seq
+            )
+            UPDATE change_log_heads h SET pruned_through = p.max_seq
+            FROM (SELECT user_id, MAX(seq) AS max_seq FROM pruned GROUP BY user_id) p
+            WHERE h.user_id = p.user_id
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${sync.retention-days}")
+    private int retentionDays;
+
+    // Not mapped as entities, so Hibernate's schema update does not create them
+    @PostConstruct
+    public void init() {
+        shardRouter.forEachShard(shard -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS change_log_heads (user_id BIGINT PRIMARY KEY "
+                    + "REFERENCES users(id) ON DELETE CASCADE, last_seq BIGINT NOT NULL DEFAULT 0, "
+                    + "pruned_through BIGINT NOT NULL DEFAULT 0)");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS change_log (user_id BIGINT NOT NULL "
+                    + "REFERENCES users(id) ON DELETE CASCADE, seq BIGINT NOT NULL, entity VARCHAR(20) NOT NULL, "
+                    + "entity_id BIGINT NOT NULL, op VARCHAR(10) NOT NULL, "
+                    + "changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, PRIMARY KEY (user_id, seq))");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_change_log_changed_at ON change_log(changed_at)");
+        });
+    }
+
+    public void recordUpsert(Long userId, String entity, Long entityId) {
+        record(new Change(userId, entity, entityId, OP_UPSERT));
+    }
+
+    /**
+     * Logs every transaction with an id above {@code afterId} on the given
+     * connection, for bulk loads that bypass the repositories. Rows that
+     * other writers committed meanwhile may be logged twice, which sync
+     * tolerates.
+     */
+    public void recordTransactionsAfter(Connection connection, long afterId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(APPEND_IMPORTED_SQL)) {
+            statement.setLong(1, afterId);
+            statement.executeUpdate();
+        }
+    }
+
+    public long maxTransactionId(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM transactions");
+             ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * The user's latest sequence number and the highest one pruned from
+     * the log. Must run on the user's shard.
+     */
+    public Head head(Long userId) {
+        List<Head> heads = jdbcTemplate.query(
+                "SELECT last_seq, pruned_through FROM change_log_heads WHERE user_id = ?",
+                (rs, rowNum) -> new Head(rs.getLong(1), rs.getLong(2)), userId);
+        return heads.isEmpty() ? new Head(0, 0) : heads.get(0);
+    }
+
+    /** Up to {@code limit} entries after {@code since}, in sequence order. Must run on the user's shard. */
+    public List<Change> changesSince(Long userId, long since, int limit) {
+        return jdbcTemplate.query(
+                "SELECT seq, entity, entity_id, op FROM change_log WHERE user_id = ? AND seq > ? ORDER BY seq LIMIT ?",
+                (rs, rowNum) -> new Change(userId, rs.getString(2), rs.getLong(3), rs.getString(4), rs.getLong(1)),
+                userId, since, limit);
+    }
+
+    @Scheduled(cron = "${sync.prune-cron}")
+    public void prune() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        shardRouter.forEachShard(shard -> {
+            int users = jdbcTemplate.update(PRUNE_SQL, cutoff);
+            logger.info("Pruned change log entries older than {} days for {} users on shard {}",
+                    retentionDays, users, shard);
+        });
+    }
+
+    private void record(Change change) {
+        if (change.userId() == null || change.entityId() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(List.of(change));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(change);
+    }
+
+    private void append(List<Change> changes) {
+        List<Change> sorted = new ArrayList<>(changes);
+        sorted.sort(Comparator.comparing(Change::userId));
+        jdbcTemplate.batchUpdate(APPEND_SQL, sorted, sorted.size(), (statement, change) -> {
+            statement.setLong(1, change.userId());
+            statement.setLong(2, change.userId());
+            statement.setString(3, change.entity());
+            statement.setLong(4, change.entityId());
+            statement.setString(5, change.op());
+        });
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final List<Change> changes = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // A row touched twice in one transaction only needs one entry
+            append(changes.stream().distinct().toList());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLogService.this);
+        }
+    }
+
+    public record Head(long lastSeq, long prunedThrough) {
+    }
+
+    public record Change(Long userId, String entity, Long entityId, String op, long seq) {
+
+        Change(Long userId, String entity, Long entityId, String op) {
+            this(userId, entity, entityId, op, 0);
+        }
+    }
+}
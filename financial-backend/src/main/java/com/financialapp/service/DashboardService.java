@@ -0,0 +1,73 @@
+package com.financialapp.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Service
+public class DashboardService {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    @Qualifier("fanOutExecutor")
+    private AsyncTaskExecutor fanOutExecutor;
+
+    @Value("${dashboard.section-timeout-ms}")
+    private long sectionTimeoutMs;
+
+    /**
+     * Loads every dashboard section concurrently. A section that fails or
+     * exceeds its timeout is returned as null and listed under "errors", so
+     * one slow query never blanks the whole screen.
+     */
+    public Map<String, Object> getDashboard(Long userId) {
+        Map<String, CompletableFuture<?>> sections = new LinkedHashMap<>();
+        sections.put("accounts", loadSection(() -> accountService.getAccountsByUserId(userId)));
+        sections.put("recentTransactions", loadSection(() -> transactionService.getRecentTransactionsByUserId(userId)));
+
+        Map<String, Object> dashboard = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        sections.forEach((name, future) -> {
+            try {
+                dashboard.put(name, future.join());
+            } catch (CompletionException e) {
+                dashboard.put(name, null);
+                errors.put(name, describe(e.getCause()));
+            }
+        });
+        dashboard.put("errors", errors);
+        return dashboard;
+    }
+
+    private <T> CompletableFuture<T> loadSection(Supplier<T> loader) {
+        try {
+            return CompletableFuture.supplyAsync(loader, fanOutExecutor)
+                    .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Executor saturated: fail this section instead of the request
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private String describe(Throwable cause) {
+        if (cause instanceof TimeoutException) {
+            return "Timed out after " + sectionTimeoutMs + " ms";
+        }
+        return cause != null && cause.getMessage() != null ? cause.getMessage() : "Section unavailable";
+    }
+}
@@ -0,0 +1,136 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Per-user data version counters used to answer conditional GETs without
+ * touching the data tables. A user's version is a row in
+ * {@code data_versions} on their shard, bumped in the same transaction as
+ * the change, so every instance hands out the same ETag for the same data
+ * and restarts do not reset it. A version read never comes before the
+ * rows it describes: a reader that pairs it with rows read afterwards can
+ * only get newer rows, which its next revalidation fetches again.
+ */
+@Service
+public class DataVersionService {
+
+    private static final String BUMP_SQL = "INSERT INTO data_versions (user_id, version) VALUES (?, 1) "
+            + "ON CONFLICT (user_id) DO UPDATE SET version = data_versions.version + 1";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // Not mapped as an entity, so Hibernate's schema update does not create it
+    @PostConstruct
+    public void init() {
+        shardRouter.forEachShard(shard -> jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS data_versions ("
+                + "user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE, "
+                + "version BIGINT NOT NULL DEFAULT 0)"));
+    }
+
+    /** Reads the user's version from their shard's primary */
+    public long currentVersion(Long userId) {
+        try (ShardContext.Scope ignored = shardRouter.bindUserOnPrimary(userId)) {
+            List<Long> versions = jdbcTemplate.queryForList(
+                    "SELECT version FROM data_versions WHERE user_id = ?", Long.class, userId);
+            return versions.isEmpty() ? 0L : versions.get(0);
+        }
+    }
+
+    public String eTag(String resource, Long userId) {
+        return "\"" + resource + "-" + currentVersion(userId) + "\"";
+    }
+
+    /**
+     * An ETag for a response built from this instance's memory, which other
+     * instances may not have caught up with. It carries a per-process epoch,
+     * so it only ever matches on the instance that issued it.
+     */
+    public String localETag(String resource, Long userId) {
+        return "\"" + resource + "-" + epoch + "-" + currentVersion(userId) + "\"";
+    }
+
+    /**
+     * Bumps the user's version as part of the surrounding transaction, once
+     * per user however many rows it changed. Outside a transaction the
+     * version is bumped at once. Must run on the user's shard.
+     */
+    public void markChanged(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(Set.of(userId));
+            return;
+        }
+        PendingVersions pending = (PendingVersions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingVersions();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.userIds.add(userId);
+    }
+
+    /**
+     * Bumps the versions of {@code userIds} on the given connection, for
+     * bulk loads that commit it themselves.
+     */
+    public void markChanged(Connection connection, Collection<Long> userIds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(BUMP_SQL)) {
+            for (Long userId : new TreeSet<>(userIds)) {
+                statement.setLong(1, userId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    // Users sorted, so that concurrent commits take the row locks in the same order
+    private void bump(Collection<Long> userIds) {
+        List<Long> sorted = List.copyOf(new TreeSet<>(userIds));
+        jdbcTemplate.batchUpdate(BUMP_SQL, sorted, sorted.size(), (statement, userId) -> statement.setLong(1, userId));
+    }
+
+    private final class PendingVersions implements TransactionSynchronization {
+
+        private final Set<Long> userIds = new TreeSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            bump(userIds);
+        }
+
+        // Ahead of the change log, so its head row is always locked after the version row
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE - 1;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DataVersionService.this);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.financialapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Serves FX rates from an immutable snapshot that is replaced wholesale on
+ * reload. Readers only ever dereference a volatile field, so lookups on the
+ * transfer path never block and never see a half-loaded table.
+ */
+@Service
+public class FxRateService {
+
+    // Scale of transfers.fx_rate, NUMERIC(18,8)
+    public static final int RATE_SCALE = 8;
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateService.class);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${fx.rates-file}")
+    private String ratesFile;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), 0L, Instant.EPOCH);
+
+    @PostConstruct
+    public void init() {
+        reloadIfChanged();
+    }
+
+    /**
+     * @return the rate that converts one unit of {@code from} into {@code to}, rounded half-even to
+     * {@link #RATE_SCALE} places so that the rate applied is exactly the rate stored with the transfer
+     */
+    public BigDecimal getRate(String from, String to) {
+        Snapshot current = snapshot;
+        BigDecimal fromValue = current.unitValues.get(from);
+        BigDecimal toValue = current.unitValues.get(to);
+        if (fromValue == null || toValue == null) {
+            throw new RuntimeException("No exchange rate available for " + from + " to " + to);
+        }
+        return fromValue.divide(toValue, RATE_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    public Instant getLoadedAt() {
+        return snapshot.loadedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${fx.reload-interval-ms}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(ratesFile);
+        try {
+            long lastModified = resource.lastModified();
+            if (lastModified == snapshot.sourceModified) {
+                return;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = resource.getInputStream()) {
+                properties.load(in);
+            }
+            Map<String, BigDecimal> unitValues = new HashMap<>();
+            for (String currency : properties.stringPropertyNames()) {
+                BigDecimal value = new BigDecimal(properties.getProperty(currency).trim());
+                if (value.signum() <= 0) {
+                    throw new IllegalArgumentException("Rate for " + currency + " must be positive");
+                }
+                unitValues.put(currency.trim().toUpperCase(), value);
+            }
+            snapshot = new Snapshot(Map.copyOf(unitValues), lastModified, Instant.now());
+            logger.info("Loaded {} FX rates from {}", unitValues.size(), ratesFile);
+        } catch (IOException | IllegalArgumentException e) {
+            // Keep serving the previous snapshot rather than dropping all rates
+            logger.error("Could not load FX rates from {}: {}", ratesFile, e.getMessage());
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Map<String, BigDecimal> unitValues;
+
+        private final long sourceModified;
+
+        private final Instant loadedAt;
+
+        private Snapshot(Map<String, BigDecimal> unitValues, long sourceModified, Instant loadedAt) {
+            this.unitValues = unitValues;
+            this.sourceModified = sourceModified;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.model.Account;
+import com.financialapp.model.AccountBalanceSlot;
+import com.financialapp.model.Money;
+import com.financialapp.repository.AccountBalanceSlotRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opt-in striping for accounts that receive a high rate of credits.
+ * An account with {@code hot_slots > 0} takes credits into one of that
+ * many sub-balance rows picked at random, so concurrent credits rarely
+ * queue on the same row lock. Debits and the periodic compaction fold the
+ * slots back into {@code accounts.balance}; until then the account's
+ * stored balance lags its true balance by the pending credits.
+ */
+@Service
+public class HotAccountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotAccountService.class);
+
+    @Autowired
+    private AccountBalanceSlotRepository slotRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public HotAccountService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isHot(Account account) {
+        return account.getHotSlots() != null && account.getHotSlots() > 0;
+    }
+
+    /**
+     * Credits a random slot of a hot account. Must run inside a transaction.
+     */
+    public void credit(Account account, long amount) {
+        int slot = ThreadLocalRandom.current().nextInt(account.getHotSlots());
+        slotRepository.credit(account.getId(), slot, Money.toBigDecimal(amount));
+    }
+
+    /**
+     * Folds every slot into the account's balance so that the caller sees
+     * the full balance before a debit. The caller must hold the account's
+     * row lock.
+     */
+    public void fold(Account account) {
+        long pending = 0;
+        for (AccountBalanceSlot slot : slotRepository.findByAccountIdForUpdate(account.getId())) {
+            pending = Money.plus(pending, Money.toMinorUnits(slot.getBalance()));
+            slot.setBalance(Money.toBigDecimal(0));
+        }
+        if (pending != 0) {
+            account.setBalance(Money.toBigDecimal(Money.plus(Money.toMinorUnits(account.getBalance()), pending)));
+            dataVersionService.markChanged(account.getUserId());
+            changeLogService.recordUpsert(account.getUserId(), ChangeLogService.ACCOUNT, account.getId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hot-accounts.compaction-interval-ms}")
+    public void compact() {
+        shardRouter.forEachShard(shard -> {
+            for (Long accountId : slotRepository.findAccountIdsWithPendingBalance()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        // The same row lock a debit takes, so the two cannot interleave
+                        Account account = entityManager.find(Account.class, accountId, LockModeType.PESSIMISTIC_WRITE);
+                        if (account != null) {
+                            fold(account);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    logger.warn("Could not compact hot account {}: {}", accountId, e.getMessage());
+                }
+            }
+        });
+    }
+}
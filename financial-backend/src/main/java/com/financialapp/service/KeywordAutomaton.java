@@ -0,0 +1,163 @@
+package com.financialapp.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over case-insensitive keywords. A text is scanned
+ * once whatever the number of keywords; of all keywords found in it, the
+ * one with the highest priority wins, then the longest, then the earliest
+ * added. Immutable once compiled, so one instance can be shared by any
+ * number of threads.
+ */
+public final class KeywordAutomaton {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    // Node n's edges are edgeChars/edgeTargets[edgeStart[n] .. edgeStart[n + 1]), sorted by char
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+
+    // Rank of the best keyword ending at each node or at one of its suffixes
+    private final int[] bestRank;
+
+    private final String[] valuesByRank;
+
+    private KeywordAutomaton(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] fail,
+                             int[] bestRank, String[] valuesByRank) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.bestRank = bestRank;
+        this.valuesByRank = valuesByRank;
+    }
+
+    /**
+     * @return the value of the winning keyword found in {@code text}, or null if none is
+     */
+    public String match(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        int state = 0;
+        int best = NO_MATCH;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = step(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+            if (bestRank[state] < best) {
+                best = bestRank[state];
+            }
+        }
+        return best == NO_MATCH ? null : valuesByRank[best];
+    }
+
+    public int size() {
+        return valuesByRank.length;
+    }
+
+    public static KeywordAutomaton compile(List<Keyword> keywords) {
+        // Rank keywords by precedence so that a node only needs the best rank it can reach
+        List<Keyword> ranked = new ArrayList<>();
+        for (Keyword keyword : keywords) {
+            if (keyword.text() != null && !keyword.text().isBlank()) {
+                ranked.add(keyword);
+            }
+        }
+        ranked.sort(Comparator.comparingInt(Keyword::priority).reversed()
+                .thenComparing(Comparator.comparingInt((Keyword k) -> k.text().trim().length()).reversed()));
+        String[] valuesByRank = new String[ranked.size()];
+
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> own = new ArrayList<>();
+        children.add(new TreeMap<>());
+        own.add(NO_MATCH);
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            Keyword keyword = ranked.get(rank);
+            valuesByRank[rank] = keyword.value();
+            String text = keyword.text().trim();
+            int node = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = Character.toLowerCase(text.charAt(i));
+                Integer child = children.get(node).get(c);
+                if (child == null) {
+                    child = children.size();
+                    children.get(node).put(c, child);
+                    children.add(new TreeMap<>());
+                    own.add(NO_MATCH);
+                }
+                node = child;
+            }
+            own.set(node, Math.min(own.get(node), rank));
+        }
+
+        int nodes = children.size();
+        int[] edgeStart = new int[nodes + 1];
+        for (int n = 0; n < nodes; n++) {
+            edgeStart[n + 1] = edgeStart[n] + children.get(n).size();
+        }
+        char[] edgeChars = new char[edgeStart[nodes]];
+        int[] edgeTargets = new int[edgeStart[nodes]];
+        for (int n = 0; n < nodes; n++) {
+            int e = edgeStart[n];
+            for (Map.Entry<Character, Integer> edge : children.get(n).entrySet()) {
+                edgeChars[e] = edge.getKey();
+                edgeTargets[e] = edge.getValue();
+                e++;
+            }
+        }
+
+        // Breadth-first, so a node's failure target is always finished before the node itself
+        int[] fail = new int[nodes];
+        int[] bestRank = new int[nodes];
+        bestRank[0] = own.get(0);
+        KeywordAutomaton automaton = new KeywordAutomaton(edgeStart, edgeChars, edgeTargets, fail, bestRank, valuesByRank);
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            int child = edgeTargets[e];
+            fail[child] = 0;
+            bestRank[child] = own.get(child);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int child = edgeTargets[e];
+                int state = fail[node];
+                int next;
+                while ((next = automaton.step(state, edgeChars[e])) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                fail[child] = Math.max(next, 0);
+                bestRank[child] = Math.min(own.get(child), bestRank[fail[child]]);
+                queue.add(child);
+            }
+        }
+        return automaton;
+    }
+
+    private int step(int node, char c) {
+        int from = edgeStart[node];
+        int to = edgeStart[node + 1];
+        if (from == to) {
+            return -1;
+        }
+        int e = Arrays.binarySearch(edgeChars, from, to, c);
+        return e >= 0 ? edgeTargets[e] : -1;
+    }
+
+    public record Keyword(String text, String value, int priority) {
+    }
+}
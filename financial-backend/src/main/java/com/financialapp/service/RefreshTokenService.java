@@ -0,0 +1,147 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.model.RefreshToken;
+import com.financialapp.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Long-lived refresh tokens that are exchanged for a new access token and
+ * replaced on every use. Only a SHA-256 of each token is stored. Presenting
+ * a token that was already used means it leaked, so the whole family
+ * descended from that sign-in is revoked.
+ * <p>
+ * Tokens look like {@code <userId>.<random>} so that the user's shard is
+ * known before the lookup.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${jwt.refresh-expiration}")
+    private long refreshExpirationMs;
+
+    // Transactions are started explicitly so that each one runs on the right shard
+    private final TransactionTemplate transactionTemplate;
+
+    public RefreshTokenService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Swaps a refresh token for a new one in the same family.
+     *
+     * @return the user and the replacement token
+     */
+    public Rotation rotate(String presented) {
+        Long userId = userIdOf(presented);
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            Rotation rotation = transactionTemplate.execute(status -> {
+                RefreshToken token = refreshTokenRepository.findByTokenHashForUpdate(hash(presented)).orElse(null);
+                if (token == null || !token.getUserId().equals(userId)
+                        || token.getExpiresAt().isBefore(LocalDateTime.now())) {
+                    return null;
+                }
+                if (token.getRevokedAt() != null) {
+                    logger.warn("Refresh token reuse for user {}, revoking its family", userId);
+                    refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now());
+                    return null;
+                }
+                token.setRevokedAt(LocalDateTime.now());
+                return new Rotation(userId, issue(userId, token.getFamilyId()));
+            });
+            if (rotation == null) {
+                throw new RuntimeException("Invalid refresh token");
+            }
+            return rotation;
+        }
+    }
+
+    /** Revokes the token's whole family, e.g. on logout. Unknown tokens are ignored. */
+    public void revoke(String presented) {
+        Long userId;
+        try {
+            userId = userIdOf(presented);
+        } catch (RuntimeException e) {
+            return;
+        }
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            transactionTemplate.executeWithoutResult(status ->
+                    refreshTokenRepository.findByTokenHashForUpdate(hash(presented)).ifPresent(token ->
+                            refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now())));
+        }
+    }
+
+    @Scheduled(cron = "${jwt.refresh-purge-cron}")
+    public void purgeExpired() {
+        shardRouter.forEachShard(shard -> transactionTemplate.executeWithoutResult(status -> {
+            int removed = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+            logger.info("Removed {} expired refresh tokens on shard {}", removed, shard);
+        }));
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] secret = new byte[32];
+        random.nextBytes(secret);
+        String token = userId + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(refreshExpirationMs * 1_000_000);
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            refreshTokenRepository.save(new RefreshToken(userId, hash(token), familyId, expiresAt));
+        }
+        return token;
+    }
+
+    private static Long userIdOf(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        try {
+            return Long.valueOf(token.substring(0, dot));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.dto.TransferRequest;
+import com.financialapp.model.Money;
+import com.financialapp.model.SavingsGoal;
+import com.financialapp.model.Transaction;
+import com.financialapp.model.Transfer;
+import com.financialapp.repository.SavingsGoalRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Round-up savings. Every DEBIT adds its spare change (the amount up to the
+ * next whole unit, so 0.70 for 4.30) to an in-memory total per user and
+ * funding account. A periodic sweep moves each total into the user's
+ * oldest active round-up goal with one transfer, instead of a transfer per
+ * purchase. Totals below {@code round-ups.min-transfer} wait for a later
+ * sweep; everything is swept on shutdown, but totals are lost if the
+ * process dies in between.
+ */
+@Service
+public class RoundUpService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoundUpService.class);
+
+    private static final int GOAL_LOOKUP_BATCH = 1000;
+
+    private static final long WHOLE_UNIT = Money.toMinorUnits(BigDecimal.ONE);
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private SavingsGoalRepository savingsGoalRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${round-ups.min-transfer}")
+    private BigDecimal minTransfer;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Spare change not yet swept, in minor units
+    private final ConcurrentHashMap<Funding, Long> pending = new ConcurrentHashMap<>();
+
+    public RoundUpService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("roundups.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /** Counts a newly inserted transaction once the surrounding transaction commits */
+    public void onTransaction(Transaction transaction) {
+        List<Transaction> committed = List.of(transaction);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    onCommitted(committed);
+                }
+            });
+        } else {
+            onCommitted(committed);
+        }
+    }
+
+    /** Counts transactions whose insert has already committed */
+    public void onCommitted(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            if (!"DEBIT".equals(transaction.getTxnType())) {
+                continue;
+            }
+            long spare = spareChange(Money.toMinorUnits(transaction.getAmount()));
+            if (spare > 0) {
+                pending.merge(new Funding(transaction.getUserId(), transaction.getAccountId()), spare, Long::sum);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${round-ups.settle-interval-ms}", initialDelayString = "${round-ups.settle-interval-ms}")
+    public void settle() {
+        settle(Money.toMinorUnits(minTransfer));
+    }
+
+    @PreDestroy
+    public void settleAll() {
+        settle(1);
+    }
+
+    static long spareChange(long minorUnits) {
+        long remainder = Math.floorMod(minorUnits, WHOLE_UNIT);
+        return remainder == 0 ? 0 : WHOLE_UNIT - remainder;
+    }
+
+    private synchronized void settle(long minimum) {
+        // Goals are looked up per shard, for many users at a time
+        Map<Integer, List<Funding>> byShard = new TreeMap<>();
+        pending.forEach((funding, amount) -> {
+            if (amount >= minimum) {
+                byShard.computeIfAbsent(shardRouter.shardForUser(funding.userId()), s -> new ArrayList<>()).add(funding);
+            }
+        });
+
+        int settled = 0;
+        int failed = 0;
+        for (Map.Entry<Integer, List<Funding>> shard : byShard.entrySet()) {
+            List<Funding> fundings = shard.getValue();
+            for (int from = 0; from < fundings.size(); from += GOAL_LOOKUP_BATCH) {
+                List<Funding> batch = fundings.subList(from, Math.min(from + GOAL_LOOKUP_BATCH, fundings.size()));
+                Map<Long, SavingsGoal> goals = roundUpGoals(shard.getKey(), batch);
+                for (Funding funding : batch) {
+                    Long amount = pending.remove(funding);
+                    SavingsGoal goal = goals.get(funding.userId());
+                    if (amount == null || goal == null || goal.getAccountId().equals(funding.accountId())) {
+                        // No goal to save into, or the purchase was paid from the goal's own account
+                        continue;
+                    }
+                    if (transfer(funding, goal, amount)) {
+                        settled++;
+                    } else {
+                        // Keep it for the next sweep
+                        pending.merge(funding, amount, Long::sum);
+                        failed++;
+                    }
+                }
+            }
+        }
+        meterRegistry.counter("roundups.settlements", "result", "settled").increment(settled);
+        meterRegistry.counter("roundups.settlements", "result", "failed").increment(failed);
+        if (settled + failed > 0) {
+            logger.info("Swept round-ups into savings goals: {} transfers, {} failed", settled, failed);
+        }
+    }
+
+    // Oldest active round-up goal of each user
+    private Map<Long, SavingsGoal> roundUpGoals(int shard, List<Funding> fundings) {
+        List<Long> userIds = fundings.stream().map(Funding::userId).distinct().toList();
+        Map<Long, SavingsGoal> goals = new HashMap<>();
+        try (ShardContext.Scope ignored = shardRouter.bindShard(shard)) {
+            for (SavingsGoal goal : savingsGoalRepository.findActiveRoundUpGoals(userIds)) {
+                goals.putIfAbsent(goal.getUserId(), goal);
+            }
+        }
+        return goals;
+    }
+
+    // The transfer and the goal's new amount commit together
+    private boolean transfer(Funding funding, SavingsGoal goal, long amount) {
+        try (ShardContext.Scope ignored = shardRouter.bindUser(funding.userId())) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Transfer transfer = transferService.processTransfer(funding.userId(), new TransferRequest(
+                        funding.accountId(), goal.getAccountId(), Money.toBigDecimal(amount),
+                        "Round-up savings: " + goal.getName()));
+                BigDecimal credited = transfer.getConvertedAmount() != null
+                        ? transfer.getConvertedAmount() : transfer.getAmount();
+                savingsGoalRepository.addToCurrentAmount(goal.getId(), credited);
+                dataVersionService.markChanged(funding.userId());
+            });
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Round-up transfer of {} from account {} to goal {} failed: {}",
+                    Money.toBigDecimal(amount), funding.accountId(), goal.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private record Funding(Long userId, Long accountId) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.dto.SavingsGoalRequest;
+import com.financialapp.model.Account;
+import com.financialapp.model.SavingsGoal;
+import com.financialapp.repository.AccountRepository;
+import com.financialapp.repository.SavingsGoalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class SavingsGoalService {
+
+    private static final Set<String> STATUSES = Set.of(
+            SavingsGoal.STATUS_ACTIVE, SavingsGoal.STATUS_COMPLETED, SavingsGoal.STATUS_PAUSED);
+
+    @Autowired
+    private SavingsGoalRepository savingsGoalRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Transactional(readOnly = true)
+    public List<SavingsGoal> getGoalsByUserId(Long userId) {
+        try (ShardContext.Scope ignored = shardRouter.bindUserOnPrimary(userId)) {
+            return savingsGoalRepository.findByUserIdOrderByIdAsc(userId);
+        }
+    }
+
+    @Transactional
+    public SavingsGoal createGoal(Long userId, SavingsGoalRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            if (request.getName() == null || request.getName().isBlank()) {
+                throw new RuntimeException("Goal name is required");
+            }
+            if (request.getTargetAmount() == null) {
+                throw new RuntimeException("Target amount is required");
+            }
+            SavingsGoal goal = new SavingsGoal();
+            goal.setUserId(userId);
+            apply(goal, request);
+            SavingsGoal saved = savingsGoalRepository.save(goal);
+            dataVersionService.markChanged(userId);
+            return saved;
+        }
+    }
+
+    @Transactional
+    public SavingsGoal updateGoal(Long userId, Long goalId, SavingsGoalRequest request) {
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            SavingsGoal goal = findOwnGoal(userId, goalId);
+            apply(goal, request);
+            SavingsGoal saved = savingsGoalRepository.save(goal);
+            dataVersionService.markChanged(userId);
+            return saved;
+        }
+    }
+
+    @Transactional
+    public void deleteGoal(Long userId, Long goalId) {
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            savingsGoalRepository.delete(findOwnGoal(userId, goalId));
+            dataVersionService.markChanged(userId);
+        }
+    }
+
+    private SavingsGoal findOwnGoal(Long userId, Long goalId) {
+        SavingsGoal goal = savingsGoalRepository.findById(goalId)
+                .orElseThrow(() -> new RuntimeException("Savings goal not found"));
+        if (!goal.getUserId().equals(userId)) {
+            throw new RuntimeException("Savings goal not found");
+        }
+        return goal;
+    }
+
+    // Copies the fields that were sent and checks the result
+    private void apply(SavingsGoal goal, SavingsGoalRequest request) {
+        if (request.getName() != null) {
+            goal.setName(request.getName().trim());
+        }
+        if (request.getTargetAmount() != null) {
+            if (request.getTargetAmount().signum() <= 0) {
+                throw new RuntimeException("Target amount must be positive");
+            }
+            goal.setTargetAmount(request.getTargetAmount());
+        }
+        if (request.getDeadline() != null) {
+            goal.setDeadline(request.getDeadline());
+        }
+        if (request.getStatus() != null) {
+            if (!STATUSES.contains(request.getStatus())) {
+                throw new RuntimeException("Status must be one of " + STATUSES);
+            }
+            goal.setStatus(request.getStatus());
+        }
+        if (request.getAccountId() != null) {
+            Account account = accountRepository.findById(request.getAccountId())
+                    .orElseThrow(() -> new RuntimeException("Account not found"));
+            if (!account.getUserId().equals(goal.getUserId())) {
+                throw new RuntimeException("Savings goals can only use your own accounts");
+            }
+            goal.setAccountId(account.getId());
+        }
+        if (request.getRoundUp() != null) {
+            goal.setRoundUp(request.getRoundUp());
+        }
+        if (Boolean.TRUE.equals(goal.getRoundUp()) && goal.getAccountId() == null) {
+            throw new RuntimeException("Round-ups need an account to save into");
+        }
+        if (goal.getCurrentAmount() == null) {
+            goal.setCurrentAmount(BigDecimal.ZERO);
+        }
+    }
+}
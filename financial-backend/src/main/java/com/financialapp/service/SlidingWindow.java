@@ -0,0 +1,97 @@
+package com.financialapp.service;
+
+import java.util.Arrays;
+
+/**
+ * Count and amount totals over a sliding time span, kept in a fixed ring
+ * of buckets. A bucket is recycled lazily when time comes back around to
+ * it, so there is no background cleanup and no allocation per update.
+ * Each window guards itself, which stripes contention by window key.
+ */
+public class SlidingWindow {
+
+    private final long bucketMillis;
+
+    private final long[] bucketIds;
+
+    private final long[] counts;
+
+    private final long[] amounts;
+
+    public SlidingWindow(long spanMillis, int buckets) {
+        this.bucketMillis = spanMillis / buckets;
+        this.bucketIds = new long[buckets];
+        this.counts = new long[buckets];
+        this.amounts = new long[buckets];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+    }
+
+    /**
+     * Records one event of {@code amount} if doing so keeps the window
+     * within both limits.
+     *
+     * @return false, leaving the window untouched, if a limit would be exceeded
+     */
+    public synchronized boolean tryAdd(long nowMillis, long amount, long maxCount, long maxAmount) {
+        long current = nowMillis / bucketMillis;
+        long oldestLive = current - bucketIds.length;
+        long count = 0;
+        long total = 0;
+        for (int i = 0; i < bucketIds.length; i++) {
+            if (bucketIds[i] > oldestLive) {
+                count += counts[i];
+                total += amounts[i];
+            }
+        }
+        if (count + 1 > maxCount || total + amount > maxAmount) {
+            return false;
+        }
+        apply(current, 1, amount);
+        return true;
+    }
+
+    /**
+     * Records an event unconditionally, e.g. when replaying history.
+     */
+    public synchronized void add(long timestampMillis, long amount) {
+        apply(timestampMillis / bucketMillis, 1, amount);
+    }
+
+    /**
+     * Takes back an event recorded at {@code timestampMillis}; a no-op once
+     * its bucket has expired.
+     */
+    public synchronized void remove(long timestampMillis, long amount) {
+        long bucketId = timestampMillis / bucketMillis;
+        int index = (int) Math.floorMod(bucketId, (long) bucketIds.length);
+        if (bucketIds[index] == bucketId) {
+            counts[index]--;
+            amounts[index] -= amount;
+        }
+    }
+
+    public synchronized boolean isIdle(long nowMillis) {
+        long oldestLive = nowMillis / bucketMillis - bucketIds.length;
+        for (long bucketId : bucketIds) {
+            if (bucketId > oldestLive) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void apply(long bucketId, long count, long amount) {
+        int index = (int) Math.floorMod(bucketId, (long) bucketIds.length);
+        if (bucketIds[index] != bucketId) {
+            if (bucketIds[index] > bucketId) {
+                // Slot already holds a newer bucket, so this event has expired
+                return;
+            }
+            bucketIds[index] = bucketId;
+            counts[index] = 0;
+            amounts[index] = 0;
+        }
+        counts[index] += count;
+        amounts[index] += amount;
+    }
+}
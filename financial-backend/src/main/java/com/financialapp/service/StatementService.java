@@ -0,0 +1,410 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.dto.StatementRunResult;
+import com.financialapp.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+/**
+ * Writes monthly statements: for every account its opening balance, line
+ * items, totals by category and closing balance, one CSV file per user.
+ * <p>
+ * Users are split into fixed id ranges that run in parallel. Each range is
+ * read with one streaming query ordered by user and account, so the job
+ * never issues per-user queries. Completed ranges are appended to a
+ * checkpoint file next to the statements, and a rerun for the same month
+ * skips them.
+ * <p>
+ * Balances are derived backwards from the current account balance,
+ * including credits a hot account still holds in its balance slots. Every
+ * movement since the start of the month is read: transactions, outgoing
+ * transfers that were not refunded, completed incoming transfers and the
+ * credit side of transfers from other shards.
+ */
+@Service
+public class StatementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementService.class);
+
+    private static final String PARTITION_SQL = """
+            WITH movements AS (
+                SELECT t.account_id, t.occurred_at AS at, t.category, t.description,
+                       CASE WHEN t.txn_type = 'DEBIT' THEN -t.amount ELSE t.amount END AS amount
+                FROM transactions t
+                WHERE t.user_id >= ? AND t.user_id < ? AND t.occurred_at >= ?
+                UNION ALL
+                SELECT tr.from_account_id, tr.created_at, 'Transfer', tr.description, -tr.amount
+                FROM transfers tr JOIN accounts a ON a.id = tr.from_account_id
+                WHERE a.user_id >= ? AND a.user_id < ? AND tr.created_at >= ? AND tr.status <> 'FAILED'
+                UNION ALL
+                SELECT tr.to_account_id, tr.created_at, 'Transfer', tr.description,
+                       COALESCE(tr.converted_amount, tr.amount)
+                FROM transfers tr JOIN accounts a ON a.id = tr.to_account_id
+                WHERE a.user_id >= ? AND a.user_id < ? AND tr.created_at >= ? AND tr.status = 'COMPLETED'
+                  AND NOT EXISTS (SELECT 1 FROM transfer_credits c WHERE c.transfer_id = tr.id)
+                UNION ALL
+                SELECT c.account_id, c.created_at, 'Transfer', c.description, COALESCE(c.converted_amount, c.amount)
+                FROM transfer_credits c
+                WHERE c.user_id >= ? AND c.user_id < ? AND c.created_at >= ? AND c.status = 'CREDITED'
+            ), slots AS (
+                SELECT s.account_id, SUM(s.balance) AS balance
+                FROM account_balance_slots s JOIN accounts a ON a.id = s.account_id
+                WHERE a.user_id >= ? AND a.user_id < ?
+                GROUP BY s.account_id
+            )
+            SELECT a.user_id, a.id, a.name, a.currency, %s,
+                   m.at, m.category, m.description, %s
+            FROM accounts a LEFT JOIN slots sl ON sl.account_id = a.id LEFT JOIN movements m ON m.account_id = a.id
+            WHERE a.user_id >= ? AND a.user_id < ? AND a.created_at < ?
+            ORDER BY a.user_id, a.id, m.at
+            """.formatted(Money.minorUnitsSql("a.balance + COALESCE(sl.balance, 0)"), Money.minorUnitsSql("m.amount"));
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${statements.output-dir}")
+    private String outputDir;
+
+    @Value("${statements.partition-size}")
+    private long partitionSize;
+
+    @Value("${statements.parallelism}")
+    private int parallelism;
+
+    @Value("${statements.fetch-size}")
+    private int fetchSize;
+
+    /** Statements for the month that just ended, when statements.cron is set */
+    @Scheduled(cron = "${statements.cron}")
+    public void generatePreviousMonth() throws IOException, InterruptedException {
+        generate(YearMonth.now().minusMonths(1));
+    }
+
+    public StatementRunResult generate(YearMonth month) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        StatementRunResult result = new StatementRunResult(month.toString());
+
+        Path dir = Path.of(outputDir, month.toString());
+        Files.createDirectories(dir);
+        Checkpoint checkpoint = new Checkpoint(dir.resolve("checkpoint"));
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Partition partition : planPartitions()) {
+            if (checkpoint.isDone(partition)) {
+                result.skipPartition();
+                continue;
+            }
+            tasks.add(() -> {
+                runPartition(partition, month, dir, result);
+                checkpoint.markDone(partition);
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Statement generation failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        result.setSeconds((System.nanoTime() - started) / 1e9);
+        logger.info("Statements for {}: {} users, {} accounts, {} line items in {}s ({} partitions, {} already done)",
+                month, result.getUsers(), result.getAccounts(), result.getLineItems(),
+                Math.round(result.getSeconds()), result.getPartitions(), result.getPartitionsSkipped());
+        return result;
+    }
+
+    /** Fixed-size id ranges on each shard, aligned so that reruns plan the same ranges */
+    private List<Partition> planPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        shardRouter.forEachShard(shard -> {
+            Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM users");
+            if (bounds.get("lo") == null) {
+                return;
+            }
+            long lo = ((Number) bounds.get("lo")).longValue() / partitionSize * partitionSize;
+            long hi = ((Number) bounds.get("hi")).longValue();
+            for (long from = lo; from <= hi; from += partitionSize) {
+                partitions.add(new Partition(shard, from, from + partitionSize));
+            }
+        });
+        return partitions;
+    }
+
+    private void runPartition(Partition partition, YearMonth month, Path dir, StatementRunResult result) {
+        Timestamp start = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp end = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try (ShardContext.Scope ignored = shardRouter.bindShard(partition.shard())) {
+            readOnly.executeWithoutResult(status -> {
+                JdbcTemplate streaming = new JdbcTemplate(dataSource);
+                streaming.setFetchSize(fetchSize);
+                try (StatementWriter writer = new StatementWriter(dir, month, end.toLocalDateTime())) {
+                    streaming.query(PARTITION_SQL, rs -> {
+                        try {
+                            writer.accept(rs);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, partition.from(), partition.to(), start,
+                            partition.from(), partition.to(), start,
+                            partition.from(), partition.to(), start,
+                            partition.from(), partition.to(), start,
+                            partition.from(), partition.to(),
+                            partition.from(), partition.to(), end);
+                    writer.finish();
+                    result.addPartition(writer.users, writer.accounts, writer.lineItems);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private record Partition(int shard, long from, long to) {
+
+        String key() {
+            return shard + ":" + from;
+        }
+    }
+
+    /** Append-only list of finished partitions, forced to disk after every entry */
+    private static class Checkpoint {
+
+        private final Path file;
+
+        private final Set<String> done = new HashSet<>();
+
+        Checkpoint(Path file) throws IOException {
+            this.file = file;
+            if (Files.exists(file)) {
+                done.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+            }
+        }
+
+        synchronized boolean isDone(Partition partition) {
+            return done.contains(partition.key());
+        }
+
+        synchronized void markDone(Partition partition) throws IOException {
+            Files.writeString(file, partition.key() + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            done.add(partition.key());
+        }
+    }
+
+    /**
+     * Consumes the ordered partition rows. One account is buffered at a time,
+     * since its opening balance is only known once all later movements have
+     * been summed. Each user's file is written under a temporary name and
+     * renamed once complete.
+     */
+    private static class StatementWriter implements AutoCloseable {
+
+        private final Path dir;
+        private final YearMonth month;
+        private final LocalDateTime periodEnd;
+
+        private long userId = -1;
+        private Path tempFile;
+        private BufferedWriter out;
+
+        private long accountId = -1;
+        private String accountName;
+        private String currency;
+        private long balance;
+        private long afterPeriod;
+        private final List<String[]> lines = new ArrayList<>();
+        // Minor units of lines.get(i), unboxed
+        private long[] lineAmounts = new long[64];
+
+        long users;
+        long accounts;
+        long lineItems;
+
+        StatementWriter(Path dir, YearMonth month, LocalDateTime periodEnd) {
+            this.dir = dir;
+            this.month = month;
+            this.periodEnd = periodEnd;
+        }
+
+        void accept(ResultSet rs) throws SQLException, IOException {
+            long rowUserId = rs.getLong(1);
+            long rowAccountId = rs.getLong(2);
+            if (rowAccountId != accountId) {
+                finishAccount();
+                if (rowUserId != userId) {
+                    finishUser();
+                    startUser(rowUserId);
+                }
+                accountId = rowAccountId;
+                accountName = rs.getString(3);
+                currency = rs.getString(4);
+                balance = rs.getLong(5);
+                afterPeriod = 0;
+                accounts++;
+            }
+
+            Timestamp at = rs.getTimestamp(6);
+            if (at == null) {
+                return;
+            }
+            long amount = rs.getLong(9);
+            if (!at.toLocalDateTime().isBefore(periodEnd)) {
+                afterPeriod = Math.addExact(afterPeriod, amount);
+            } else {
+                if (lines.size() == lineAmounts.length) {
+                    lineAmounts = Arrays.copyOf(lineAmounts, lineAmounts.length * 2);
+                }
+                lineAmounts[lines.size()] = amount;
+                lines.add(new String[]{at.toLocalDateTime().toString(), rs.getString(7), rs.getString(8)});
+            }
+        }
+
+        void finish() throws IOException {
+            finishAccount();
+            finishUser();
+        }
+
+        private void startUser(long id) throws IOException {
+            userId = id;
+            tempFile = dir.resolve("user-" + id + ".csv.tmp");
+            out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8);
+            out.write("record,account_id,account_name,currency,date,category,description,amount\n");
+            users++;
+        }
+
+        private void finishAccount() throws IOException {
+            if (accountId < 0) {
+                return;
+            }
+            long closing = Math.subtractExact(balance, afterPeriod);
+            long inPeriod = 0;
+            Map<String, Long> byCategory = new TreeMap<>();
+            for (int i = 0; i < lines.size(); i++) {
+                long amount = lineAmounts[i];
+                inPeriod = Math.addExact(inPeriod, amount);
+                byCategory.merge(lines.get(i)[1] == null ? "" : lines.get(i)[1], amount, Math::addExact);
+            }
+            long opening = Math.subtractExact(closing, inPeriod);
+
+            row("OPENING", month.atDay(1).toString(), null, null, opening);
+            for (int i = 0; i < lines.size(); i++) {
+                String[] line = lines.get(i);
+                row("LINE", line[0], line[1], line[2], lineAmounts[i]);
+            }
+            for (Map.Entry<String, Long> total : byCategory.entrySet()) {
+                row("CATEGORY_TOTAL", null, total.getKey(), null, total.getValue());
+            }
+            row("CLOSING", month.atEndOfMonth().toString(), null, null, closing);
+
+            lineItems += lines.size();
+            lines.clear();
+            accountId = -1;
+        }
+
+        private void finishUser() throws IOException {
+            if (out == null) {
+                return;
+            }
+            out.close();
+            out = null;
+            Files.move(tempFile, dir.resolve("user-" + userId + ".csv"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private void row(String record, String date, String category, String description, long amount)
+                throws IOException {
+            out.write(record);
+            out.write(',');
+            out.write(Long.toString(accountId));
+            out.write(',');
+            out.write(csv(accountName));
+            out.write(',');
+            out.write(csv(currency));
+            out.write(',');
+            out.write(csv(date));
+            out.write(',');
+            out.write(csv(category));
+            out.write(',');
+            out.write(csv(description));
+            out.write(',');
+            out.write(Money.toBigDecimal(amount).toPlainString());
+            out.write('\n');
+        }
+
+        private static String csv(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                out.close();
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+}
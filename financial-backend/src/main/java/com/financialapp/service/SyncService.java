@@ -0,0 +1,128 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.repository.AccountRepository;
+import com.financialapp.repository.TransactionRepository;
+import com.financialapp.repository.TransferRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Delta sync for offline clients. A client sends back the token from its
+ * previous response. It receives the current state of every account,
+ * transaction and transfer changed since then, plus the ids of changed
+ * rows that are gone. Without a usable token (first sync, or one older
+ * than the pruned part of the log) it receives a full snapshot instead.
+ * The API never deletes these rows; one removed outside it is not logged,
+ * so clients only drop it on their next full snapshot.
+ */
+@Service
+public class SyncService {
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${sync.max-changes}")
+    private int maxChanges;
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> sync(Long userId, Long since) {
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            ChangeLogService.Head head = changeLogService.head(userId);
+            if (since == null || since < head.prunedThrough() || since > head.lastSeq()) {
+                return snapshot(userId, head.lastSeq());
+            }
+
+            List<ChangeLogService.Change> changes = changeLogService.changesSince(userId, since, maxChanges + 1);
+            boolean hasMore = changes.size() > maxChanges;
+            if (hasMore) {
+                changes = changes.subList(0, maxChanges);
+            }
+            long token = changes.isEmpty() ? since : changes.get(changes.size() - 1).seq();
+
+            // A row changed several times is loaded once
+            Map<String, Set<Long>> latest = new HashMap<>();
+            for (ChangeLogService.Change change : changes) {
+                latest.computeIfAbsent(change.entity(), entity -> new LinkedHashSet<>()).add(change.entityId());
+            }
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("token", Long.toString(token));
+            response.put("full", false);
+            response.put("hasMore", hasMore);
+            Map<String, List<Long>> deleted = new LinkedHashMap<>();
+            response.put("accounts", load(latest.get(ChangeLogService.ACCOUNT), accountRepository,
+                    account -> account.getId(), deleted, "accounts"));
+            response.put("transactions", load(latest.get(ChangeLogService.TRANSACTION), transactionRepository,
+                    transaction -> transaction.getId(), deleted, "transactions"));
+            response.put("transfers", load(latest.get(ChangeLogService.TRANSFER), transferRepository,
+                    transfer -> transfer.getId(), deleted, "transfers"));
+            response.put("deleted", deleted);
+            return response;
+        }
+    }
+
+    private Map<String, Object> snapshot(Long userId, long token) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("token", Long.toString(token));
+        response.put("full", true);
+        response.put("hasMore", false);
+        response.put("accounts", accountRepository.findByUserId(userId));
+        response.put("transactions", transactionRepository.findByUserId(userId));
+        response.put("transfers", transferRepository.findByUserId(userId));
+        response.put("deleted", Map.of());
+        return response;
+    }
+
+    /**
+     * Loads the changed rows in one query. Rows no longer present are
+     * listed under deleted.
+     */
+    private <T> List<T> load(Set<Long> ids, JpaRepository<T, Long> repository,
+                             Function<T, Long> idOf, Map<String, List<Long>> deleted, String name) {
+        if (ids == null) {
+            return List.of();
+        }
+        List<T> rows = repository.findAllById(ids);
+        Set<Long> found = new HashSet<>();
+        for (T row : rows) {
+            found.add(idOf.apply(row));
+        }
+        List<Long> gone = new ArrayList<>();
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                gone.add(id);
+            }
+        }
+        if (!gone.isEmpty()) {
+            deleted.put(name, gone);
+        }
+        return rows;
+    }
+}
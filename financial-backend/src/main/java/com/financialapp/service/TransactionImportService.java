@@ -0,0 +1,426 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.dto.ImportResult;
+import com.financialapp.model.Money;
+import com.financialapp.model.Transaction;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads transaction CSV files through PostgreSQL's COPY protocol. Rows are
+ * parsed and validated one at a time and shipped in fixed-size chunks, so
+ * memory use is bounded by the chunk size rather than the file size. Each
+ * chunk is one COPY statement. When a chunk is flushed, the owners of its
+ * accounts are read in one query and rows whose account is unknown or
+ * belongs to someone else are rejected, so a shard's connection is only in
+ * a transaction while a chunk is being written. If the database still
+ * rejects a chunk, it is retried row by row so only the bad rows are lost.
+ */
+@Service
+public class TransactionImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionImportService.class);
+
+    private static final String COPY_SQL = "COPY transactions "
+            + "(user_id, account_id, txn_type, category, amount, description, occurred_at) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("account_id", "txn_type", "amount");
+
+    private static final String ACCOUNT_OWNERS_SQL = "SELECT id, user_id FROM accounts WHERE id = ANY (?)";
+
+    private static final Set<String> TXN_TYPES = Set.of("DEBIT", "CREDIT");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private CategorizationService categorizationService;
+
+    @Autowired
+    private BudgetAlertService budgetAlertService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private RoundUpService roundUpService;
+
+    @Value("${transaction-import.chunk-size}")
+    private int chunkSize;
+
+    @Value("${transaction-import.max-reported-errors}")
+    private int maxReportedErrors;
+
+    /**
+     * Imports rows on behalf of {@code ownerId}: every row is stored under
+     * that user, and rows naming another user or another user's account are
+     * rejected. A null owner takes user_id from each row, for trusted
+     * command-line imports.
+     */
+    public ImportResult importCsv(Reader input, Long ownerId) throws IOException {
+        long started = System.nanoTime();
+        ImportResult result = new ImportResult();
+
+        CsvRecordReader csv = new CsvRecordReader(input);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new RuntimeException("CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new RuntimeException("Missing required column: " + column);
+            }
+        }
+        if (ownerId == null && !columns.containsKey("user_id")) {
+            throw new RuntimeException("Missing required column: user_id");
+        }
+
+        // One open COPY target per shard the file touches (just one when unsharded)
+        Map<Integer, Chunk> chunks = new HashMap<>();
+        try {
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                result.setRowsRead(result.getRowsRead() + 1);
+                Transaction transaction;
+                try {
+                    transaction = toTransaction(record, columns, ownerId);
+                } catch (RuntimeException e) {
+                    reject(result, csv.getRecordLine(), 1, e.getMessage());
+                    continue;
+                }
+                int shard = shardRouter.shardForUser(transaction.getUserId());
+                Chunk chunk = chunks.get(shard);
+                if (chunk == null) {
+                    chunk = new Chunk(openConnection(shard));
+                    chunks.put(shard, chunk);
+                }
+                chunk.add(csv.getRecordLine(), transaction);
+                if (chunk.size() >= chunkSize) {
+                    flush(chunk, result);
+                }
+            }
+            for (Chunk chunk : chunks.values()) {
+                flush(chunk, result);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Import failed: " + e.getMessage(), e);
+        } finally {
+            for (Chunk chunk : chunks.values()) {
+                chunk.close();
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        result.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setRowsPerSecond(result.getRowsImported() * 1_000_000_000.0 / Math.max(1, elapsedNanos));
+        logger.info("Imported {} of {} transaction rows in {} ms ({} rows/s)",
+                result.getRowsImported(), result.getRowsRead(), result.getElapsedMs(),
+                Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    private Transaction toTransaction(List<String> record, Map<String, Integer> columns, Long ownerId) {
+        String userId = field(record, columns, "user_id");
+        if (ownerId != null && !userId.isBlank() && !ownerId.equals(parseLong(userId, "user_id"))) {
+            throw new RuntimeException("user_id must be empty or " + ownerId);
+        }
+        Transaction transaction = new Transaction(
+                ownerId != null ? ownerId : parseLong(userId, "user_id"),
+                parseLong(field(record, columns, "account_id"), "account_id"),
+                field(record, columns, "txn_type").trim().toUpperCase(),
+                field(record, columns, "category").trim(),
+                parseAmount(field(record, columns, "amount")),
+                emptyToNull(field(record, columns, "description"))
+        );
+        String occurredAt = field(record, columns, "occurred_at");
+        if (!occurredAt.isBlank()) {
+            transaction.setOccurredAt(parseTimestamp(occurredAt.trim()));
+        }
+        // Rows without a category are categorized from their description
+        categorizationService.applyTo(transaction);
+
+        Set<ConstraintViolation<Transaction>> violations = validator.validate(transaction);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Transaction> violation = violations.iterator().next();
+            throw new RuntimeException(violation.getPropertyPath() + " " + violation.getMessage());
+        }
+        if (!TXN_TYPES.contains(transaction.getTxnType())) {
+            throw new RuntimeException("txn_type must be DEBIT or CREDIT");
+        }
+        return transaction;
+    }
+
+    private Connection openConnection(int shard) throws SQLException {
+        try (ShardContext.Scope ignored = shardRouter.bindShard(shard)) {
+            Connection connection = dataSource.getConnection();
+            // Unwrapping opens the physical connection, so do it while the shard is bound
+            connection.unwrap(PGConnection.class);
+            // Each chunk commits together with its change log entries
+            connection.setAutoCommit(false);
+            return connection;
+        }
+    }
+
+    // Drops the rows whose account is not their user's, in the transaction that writes the rest
+    private void rejectForeignAccounts(Chunk chunk, ImportResult result) throws SQLException {
+        Map<Long, Long> owners = new HashMap<>();
+        try (PreparedStatement statement = chunk.connection.prepareStatement(ACCOUNT_OWNERS_SQL)) {
+            statement.setArray(1, chunk.connection.createArrayOf("bigint",
+                    chunk.transactions.stream().map(Transaction::getAccountId).distinct().toArray()));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    owners.put(rs.getLong(1), rs.getLong(2));
+                }
+            }
+        }
+        List<Long> lines = List.copyOf(chunk.lines);
+        List<Transaction> transactions = List.copyOf(chunk.transactions);
+        chunk.clear();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (transaction.getUserId().equals(owners.get(transaction.getAccountId()))) {
+                chunk.add(lines.get(i), transaction);
+            } else {
+                reject(result, lines.get(i), 1, "account_id " + transaction.getAccountId()
+                        + " is not an account of user " + transaction.getUserId());
+            }
+        }
+    }
+
+    private void flush(Chunk chunk, ImportResult result) throws SQLException {
+        if (chunk.size() == 0) {
+            return;
+        }
+        try {
+            rejectForeignAccounts(chunk, result);
+        } catch (SQLException e) {
+            rollback(chunk);
+            throw e;
+        }
+        if (chunk.size() == 0) {
+            chunk.connection.commit();
+            return;
+        }
+        try {
+            CopyManager copyManager = chunk.connection.unwrap(PGConnection.class).getCopyAPI();
+            long lastIdBefore = changeLogService.maxTransactionId(chunk.connection);
+            long copied = copyManager.copyIn(COPY_SQL, new StringReader(chunk.rows.toString()));
+            commit(chunk, lastIdBefore, chunk.transactions, copied, result);
+        } catch (SQLException | IOException e) {
+            rollback(chunk);
+            logger.info("Import chunk on lines {}-{} rejected, retrying row by row: {}",
+                    chunk.firstLine, chunk.lastLine, e.getMessage());
+            flushRowByRow(chunk, result);
+        }
+        chunk.clear();
+    }
+
+    // One COPY per row behind a savepoint, so a bad row only loses itself
+    private void flushRowByRow(Chunk chunk, ImportResult result) {
+        try {
+            CopyManager copyManager = chunk.connection.unwrap(PGConnection.class).getCopyAPI();
+            long lastIdBefore = changeLogService.maxTransactionId(chunk.connection);
+            List<Transaction> copied = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Savepoint savepoint = chunk.connection.setSavepoint();
+                try {
+                    copyManager.copyIn(COPY_SQL, new StringReader(chunk.row(i)));
+                    chunk.connection.releaseSavepoint(savepoint);
+                    copied.add(chunk.transactions.get(i));
+                } catch (SQLException e) {
+                    chunk.connection.rollback(savepoint);
+                    reject(result, chunk.lines.get(i), 1, e.getMessage());
+                }
+            }
+            commit(chunk, lastIdBefore, copied, copied.size(), result);
+        } catch (SQLException | IOException e) {
+            rollback(chunk);
+            reject(result, chunk.firstLine, chunk.size(),
+                    "Rows on lines " + chunk.firstLine + "-" + chunk.lastLine + " rejected: " + e.getMessage());
+        }
+    }
+
+    private void commit(Chunk chunk, long lastIdBefore, List<Transaction> transactions, long copied,
+                        ImportResult result) throws SQLException {
+        dataVersionService.markChanged(chunk.connection,
+                transactions.stream().map(Transaction::getUserId).toList());
+        changeLogService.recordTransactionsAfter(chunk.connection, lastIdBefore);
+        budgetAlertService.onTransactions(chunk.connection, transactions);
+        chunk.connection.commit();
+        analyticsService.onCommitted(transactions);
+        roundUpService.onCommitted(transactions);
+        result.setRowsImported(result.getRowsImported() + copied);
+    }
+
+    private void rollback(Chunk chunk) {
+        try {
+            chunk.connection.rollback();
+        } catch (SQLException e) {
+            logger.warn("Rollback of import chunk failed: {}", e.getMessage());
+        }
+    }
+
+    private void reject(ImportResult result, long line, int rows, String message) {
+        result.setRowsRejected(result.getRowsRejected() + rows);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ImportResult.RowError(line, message));
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < record.size() ? record.get(index) : "";
+    }
+
+    private static Long parseLong(String value, String column) {
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(column + " is not a valid id: " + value);
+        }
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        try {
+            BigDecimal amount = new BigDecimal(value.trim());
+            Money.toMinorUnits(amount);
+            return amount;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("amount is not a number: " + value);
+        }
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        try {
+            return value.length() == 10
+                    ? LocalDate.parse(value).atStartOfDay()
+                    : LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("occurred_at is not a valid timestamp: " + value);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static final class Chunk {
+
+        private final Connection connection;
+
+        private final StringBuilder rows = new StringBuilder();
+
+        // Where each row starts in rows, and its line in the file
+        private final List<Integer> rowStarts = new ArrayList<>();
+
+        private final List<Long> lines = new ArrayList<>();
+
+        private final List<Transaction> transactions = new ArrayList<>();
+
+        private int size;
+
+        private long firstLine;
+
+        private long lastLine;
+
+        Chunk(Connection connection) {
+            this.connection = connection;
+        }
+
+        void add(long line, Transaction transaction) {
+            if (size == 0) {
+                firstLine = line;
+            }
+            lastLine = line;
+            size++;
+            rowStarts.add(rows.length());
+            lines.add(line);
+            transactions.add(transaction);
+            rows.append(transaction.getUserId()).append(',')
+                    .append(transaction.getAccountId()).append(',')
+                    .append(quote(transaction.getTxnType())).append(',')
+                    .append(quote(transaction.getCategory())).append(',')
+                    .append(transaction.getAmount().toPlainString()).append(',')
+                    .append(transaction.getDescription() != null ? quote(transaction.getDescription()) : "")
+                    .append(',')
+                    .append(transaction.getOccurredAt())
+                    .append('\n');
+        }
+
+        int size() {
+            return size;
+        }
+
+        String row(int index) {
+            int end = index + 1 < size ? rowStarts.get(index + 1) : rows.length();
+            return rows.substring(rowStarts.get(index), end);
+        }
+
+        void clear() {
+            rows.setLength(0);
+            rowStarts.clear();
+            lines.clear();
+            transactions.clear();
+            size = 0;
+        }
+
+        void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Could not close import connection: {}", e.getMessage());
+            }
+        }
+    }
+}
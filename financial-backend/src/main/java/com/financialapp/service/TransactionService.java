@@ -1,9 +1,12 @@
 package com.financialapp.service;
 
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
 import com.financialapp.model.Transaction;
 import com.financialapp.repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,7 +16,52 @@ public class TransactionService {
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private CategorizationService categorizationService;
+
+    @Autowired
+    private BudgetAlertService budgetAlertService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private RoundUpService roundUpService;
+
+    @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByUserId(Long userId) {
-        return transactionRepository.findByUserId(userId);
+        try (ShardContext.Scope ignored = shardRouter.bindUserOnPrimary(userId)) {
+            return transactionRepository.findByUserId(userId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Transaction> getRecentTransactionsByUserId(Long userId) {
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            return transactionRepository.findTop10ByUserIdOrderByOccurredAtDesc(userId);
+        }
+    }
+
+    @Transactional
+    public Transaction createTransaction(Transaction transaction) {
+        try (ShardContext.Scope ignored = shardRouter.bindUser(transaction.getUserId())) {
+            categorizationService.applyTo(transaction);
+            Transaction saved = transactionRepository.save(transaction);
+            dataVersionService.markChanged(saved.getUserId());
+            changeLogService.recordUpsert(saved.getUserId(), ChangeLogService.TRANSACTION, saved.getId());
+            budgetAlertService.onTransaction(saved);
+            analyticsService.onTransaction(saved);
+            roundUpService.onTransaction(saved);
+            return saved;
+        }
     }
 }
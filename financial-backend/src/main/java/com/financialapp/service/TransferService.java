@@ -1,18 +1,78 @@
 package com.financialapp.service;
 
+import com.financialapp.audit.AuditEvent;
+import com.financialapp.audit.AuditLogService;
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.dto.TransferHistoryItem;
 import com.financialapp.dto.TransferRequest;
 import com.financialapp.model.Account;
+import com.financialapp.model.Money;
 import com.financialapp.model.Transfer;
+import com.financialapp.model.TransferCredit;
 import com.financialapp.repository.AccountRepository;
+import com.financialapp.repository.TransferCreditRepository;
 import com.financialapp.repository.TransferRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public class TransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferService.class);
+
+    /*
+     * Transfers the user sent, transfers into the user's accounts from other
+     * users on this shard, and the credit side of transfers from other
+     * shards, whose sending account is not here. A transfer whose sender has
+     * since moved onto this shard has both a transfers and a credit row; the
+     * credit row is the one shown.
+     */
+    private static final String HISTORY_SQL = """
+            SELECT * FROM (
+                SELECT t.id, t.amount, t.converted_amount, t.fx_rate, t.description, t.status, t.created_at,
+                       t.from_account_id, fa.name AS from_account_name, fa.currency AS from_currency,
+                       t.to_account_id, ta.name AS to_account_name, ta.currency AS to_currency
+                FROM transfers t
+                LEFT JOIN accounts fa ON fa.id = t.from_account_id
+                LEFT JOIN accounts ta ON ta.id = t.to_account_id
+                WHERE t.user_id = ?
+                UNION ALL
+                SELECT t.id, t.amount, t.converted_amount, t.fx_rate, t.description, t.status, t.created_at,
+                       t.from_account_id, fa.name, fa.currency, t.to_account_id, ta.name, ta.currency
+                FROM transfers t
+                JOIN accounts ta ON ta.id = t.to_account_id
+                LEFT JOIN accounts fa ON fa.id = t.from_account_id
+                WHERE ta.user_id = ? AND t.user_id <> ?
+                  AND NOT EXISTS (SELECT 1 FROM transfer_credits c WHERE c.transfer_id = t.id)
+                UNION ALL
+                SELECT c.transfer_id, c.amount, c.converted_amount, c.fx_rate, c.description, 'COMPLETED',
+                       c.created_at, c.from_account_id, NULL, NULL, c.account_id, ta.name, ta.currency
+                FROM transfer_credits c
+                JOIN accounts ta ON ta.id = c.account_id
+                WHERE c.user_id = ? AND c.status = 'CREDITED'
+            ) history
+            ORDER BY created_at DESC, id DESC
+            LIMIT ? OFFSET ?
+            """;
     
     @Autowired
     private AccountRepository accountRepository;
@@ -20,22 +80,294 @@ public class TransferService {
     @Autowired
     private TransferRepository transferRepository;
 
-    @Transactional
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Autowired
+    private VelocityCheckService velocityCheckService;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ChangeLogService changeLogService;
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private TransferCreditRepository transferCreditRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${sharding.reconcile-after-seconds}")
+    private long reconcileAfterSeconds;
+
+    // Transactions are started explicitly so that each one runs on the right shard
+    private final TransactionTemplate transactionTemplate;
+
+    public TransferService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Moves money between two accounts. The audit slot is taken first, so a
+     * transfer is refused rather than made when the audit log is backed up.
+     */
     public Transfer processTransfer(Long userId, TransferRequest transferRequest) {
-        // Get accounts
-        Account fromAccount = accountRepository.findById(transferRequest.getFromAccountId())
-            .orElseThrow(() -> new RuntimeException("From account not found"));
-        
-        Account toAccount = accountRepository.findById(transferRequest.getToAccountId())
-            .orElseThrow(() -> new RuntimeException("To account not found"));
+        AuditLogService.Slot audit = auditLogService.reserve();
+        Transfer transfer = null;
+        String error = "unexpected error";
+        try {
+            transfer = transfer(userId, transferRequest);
+            return transfer;
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            throw e;
+        } finally {
+            // Publish on every path: an unpublished slot holds audit capacity and delays the shutdown drain
+            if (transfer != null) {
+                audit.publish(AuditEvent.of(AuditEvent.TRANSFER, userId, "transfer:" + transfer.getId(),
+                        describe(transferRequest)));
+            } else {
+                audit.publish(AuditEvent.of(AuditEvent.TRANSFER_FAILED, userId, null,
+                        describe(transferRequest) + " error=" + error));
+            }
+        }
+    }
+
+    private Transfer transfer(Long userId, TransferRequest transferRequest) {
+        int fromShard = shardRouter.shardForUser(userId);
+        Integer toShard = shardRouter.locateAccount(transferRequest.getToAccountId(), fromShard);
+        if (toShard == null) {
+            throw new RuntimeException("To account not found");
+        }
+
+        if (toShard == fromShard) {
+            try (ShardContext.Scope ignored = shardRouter.bindShard(fromShard)) {
+                return transactionTemplate.execute(status -> transferWithinShard(userId, transferRequest));
+            }
+        }
+        return transferAcrossShards(userId, transferRequest, fromShard, toShard);
+    }
+
+    /**
+     * One statement per page, with both accounts joined in and no count
+     * query. The shard is bound inside the transaction, which works because
+     * the sharded DataSource only picks a connection at the first statement.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TransferHistoryItem> getTransferHistory(Long userId, int page, int size) {
+        try (ShardContext.Scope ignored = shardRouter.bindUserOnPrimary(userId)) {
+            // One row more than the page tells whether there is a next page
+            List<TransferHistoryItem> items = jdbcTemplate.query(HISTORY_SQL, TransferService::historyItem,
+                    userId, userId, userId, userId, size + 1, (long) page * size);
+            boolean hasNext = items.size() > size;
+            return new SliceImpl<>(hasNext ? items.subList(0, size) : items, PageRequest.of(page, size), hasNext);
+        }
+    }
+
+    /**
+     * Settles cross-shard transfers left PENDING, for example by a crash
+     * between the saga's steps. Only transfers older than
+     * sharding.reconcile-after-seconds are touched, so sagas still in
+     * flight normally finish on their own; if one does race the reconciler,
+     * the transfer_credits row decides the outcome.
+     */
+    @Scheduled(fixedDelayString = "${sharding.reconcile-interval-ms}",
+            initialDelayString = "${sharding.reconcile-interval-ms}")
+    public void reconcilePendingTransfers() {
+        if (!shardRouter.isEnabled()) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusSeconds(reconcileAfterSeconds);
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            List<Transfer> pending;
+            try (ShardContext.Scope ignored = shardRouter.bindShard(shard)) {
+                pending = transferRepository.findPendingBefore(before);
+            }
+            for (Transfer transfer : pending) {
+                try {
+                    logger.info("Reconciled cross-shard transfer {}: {}", transfer.getId(), settle(transfer, shard));
+                } catch (RuntimeException e) {
+                    logger.warn("Could not reconcile cross-shard transfer {}: {}", transfer.getId(), e.getMessage());
+                }
+            }
+        }
+    }
 
+    private Transfer transferWithinShard(Long userId, TransferRequest transferRequest) {
+        // Get and lock accounts
+        Long fromAccountId = transferRequest.getFromAccountId();
+        Long toAccountId = transferRequest.getToAccountId();
+        Account fromAccount = null;
+        Account toAccount = null;
+        for (Account account : accountRepository.lockForTransfer(List.of(fromAccountId, toAccountId), fromAccountId)) {
+            if (account.getId().equals(fromAccountId)) {
+                fromAccount = account;
+            }
+            if (account.getId().equals(toAccountId)) {
+                toAccount = account;
+            }
+        }
+        if (fromAccount == null) {
+            throw new RuntimeException("From account not found");
+        }
+        if (toAccount == null) {
+            // Hot, so credited through a slot without the row lock
+            toAccount = accountRepository.findById(toAccountId)
+                .orElseThrow(() -> new RuntimeException("To account not found"));
+        }
+
+        Transfer transfer = debit(userId, transferRequest, fromAccount, toAccount);
+        credit(toAccount, creditedAmount(transfer));
+
+        Transfer saved = transferRepository.save(transfer);
+        changeLogService.recordUpsert(saved.getUserId(), ChangeLogService.TRANSFER, saved.getId());
+        return saved;
+    }
+
+    /**
+     * Saga across two shards: debit and record the transfer as PENDING on
+     * the source shard, credit and record a transfer_credits row on the
+     * destination shard, then mark it COMPLETED. If the credit fails the
+     * transfer is settled from what the destination recorded, normally a
+     * refund and FAILED. A transfer left PENDING by a crash between steps is
+     * settled the same way by {@link #reconcilePendingTransfers()}.
+     */
+    private Transfer transferAcrossShards(Long userId, TransferRequest transferRequest, int fromShard, int toShard) {
+        Account toAccount;
+        try (ShardContext.Scope ignored = shardRouter.bindShard(toShard)) {
+            toAccount = accountRepository.findById(transferRequest.getToAccountId())
+                .orElseThrow(() -> new RuntimeException("To account not found"));
+        }
+
+        Transfer transfer;
+        try (ShardContext.Scope ignored = shardRouter.bindShard(fromShard)) {
+            transfer = transactionTemplate.execute(status -> {
+                Long fromAccountId = transferRequest.getFromAccountId();
+                Account fromAccount = accountRepository.lockForTransfer(List.of(fromAccountId), fromAccountId)
+                    .stream().findFirst()
+                    .orElseThrow(() -> new RuntimeException("From account not found"));
+                Transfer pending = debit(userId, transferRequest, fromAccount, toAccount);
+                pending.setStatus(Transfer.STATUS_PENDING);
+                Transfer saved = transferRepository.save(pending);
+                changeLogService.recordUpsert(saved.getUserId(), ChangeLogService.TRANSFER, saved.getId());
+                return saved;
+            });
+        }
+
+        try (ShardContext.Scope ignored = shardRouter.bindShard(toShard)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Account target = lockForCredit(transferRequest.getToAccountId(), "To account not found");
+                if (!transferCreditRepository.claim(transfer, target.getUserId(), TransferCredit.STATUS_CREDITED)) {
+                    throw new RuntimeException("Transfer was already settled");
+                }
+                credit(target, creditedAmount(transfer));
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Credit of cross-shard transfer {} failed, settling: {}", transfer.getId(), e.getMessage());
+            String status;
+            try {
+                status = settle(transfer, fromShard);
+            } catch (RuntimeException settleFailure) {
+                logger.warn("Cross-shard transfer {} left PENDING for reconciliation: {}",
+                        transfer.getId(), settleFailure.getMessage());
+                status = Transfer.STATUS_PENDING;
+            }
+            // The credit may have committed even though the call failed
+            if (!Transfer.STATUS_COMPLETED.equals(status)) {
+                throw new RuntimeException("Transfer failed: " + e.getMessage());
+            }
+            transfer.setStatus(status);
+            return transfer;
+        }
+
+        try (ShardContext.Scope ignored = shardRouter.bindShard(fromShard)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                transferRepository.settlePending(transfer.getId(), Transfer.STATUS_COMPLETED);
+                changeLogService.recordUpsert(transfer.getUserId(), ChangeLogService.TRANSFER, transfer.getId());
+            });
+        }
+        transfer.setStatus(Transfer.STATUS_COMPLETED);
+        return transfer;
+    }
+
+    /**
+     * Settles a PENDING cross-shard transfer from what its destination shard
+     * recorded. If no credit was recorded, a VOIDED row is written first so
+     * the credit can no longer happen, and the sender is refunded. Both
+     * steps are idempotent, so the saga and the reconciler can both call it.
+     *
+     * @return the final status, or PENDING if the destination account is gone
+     */
+    private String settle(Transfer transfer, int fromShard) {
+        Integer toShard = shardRouter.locateAccount(transfer.getToAccountId(), fromShard);
+        if (toShard == null) {
+            logger.warn("Destination account {} of transfer {} no longer exists, leaving it PENDING",
+                    transfer.getToAccountId(), transfer.getId());
+            return Transfer.STATUS_PENDING;
+        }
+
+        String outcome;
+        try (ShardContext.Scope ignored = shardRouter.bindShard(toShard)) {
+            outcome = transactionTemplate.execute(status -> {
+                Account target = accountRepository.findById(transfer.getToAccountId())
+                    .orElseThrow(() -> new RuntimeException("To account not found"));
+                transferCreditRepository.claim(transfer, target.getUserId(), TransferCredit.STATUS_VOIDED);
+                return transferCreditRepository.findStatus(transfer.getId());
+            });
+        }
+
+        try (ShardContext.Scope ignored = shardRouter.bindShard(fromShard)) {
+            return transactionTemplate.execute(status -> {
+                if (TransferCredit.STATUS_CREDITED.equals(outcome)) {
+                    transferRepository.settlePending(transfer.getId(), Transfer.STATUS_COMPLETED);
+                    changeLogService.recordUpsert(transfer.getUserId(), ChangeLogService.TRANSFER, transfer.getId());
+                    return Transfer.STATUS_COMPLETED;
+                }
+                if (transferRepository.settlePending(transfer.getId(), Transfer.STATUS_FAILED) == 1) {
+                    Account source = lockForCredit(transfer.getFromAccountId(), "From account not found");
+                    credit(source, Money.toMinorUnits(transfer.getAmount()));
+                    changeLogService.recordUpsert(transfer.getUserId(), ChangeLogService.TRANSFER, transfer.getId());
+                }
+                return Transfer.STATUS_FAILED;
+            });
+        }
+    }
+
+    /**
+     * Validates the transfer, debits the source account and returns the
+     * (unsaved) transfer record. Must run inside a transaction on the
+     * source account's shard, holding the source account's row lock.
+     */
+    private Transfer debit(Long userId, TransferRequest transferRequest, Account fromAccount, Account toAccount) {
         // Verify ownership
         if (!fromAccount.getUserId().equals(userId)) {
             throw new RuntimeException("You can only transfer from your own accounts");
         }
 
+        // Hot accounts hold part of their balance in slots; fold them before debiting
+        if (hotAccountService.isHot(fromAccount)) {
+            hotAccountService.fold(fromAccount);
+        }
+
+        // Balances are compared and updated in minor units
+        long amount = Money.toMinorUnits(transferRequest.getAmount());
+        long fromBalance = Money.toMinorUnits(fromAccount.getBalance());
+        if (amount <= 0) {
+            throw new RuntimeException("Transfer amount must be positive");
+        }
+
         // Check sufficient funds
-        if (fromAccount.getBalance().compareTo(transferRequest.getAmount()) < 0) {
+        if (fromBalance < amount) {
             throw new RuntimeException("Insufficient funds");
         }
 
@@ -44,23 +376,86 @@ public class TransferService {
             throw new RuntimeException("Cannot transfer to the same account");
         }
 
-        // Update balances
-        fromAccount.setBalance(fromAccount.getBalance().subtract(transferRequest.getAmount()));
-        toAccount.setBalance(toAccount.getBalance().add(transferRequest.getAmount()));
+        // Enforce per-account and per-user velocity limits
+        velocityCheckService.checkAndRecord(userId, fromAccount.getId(), fromAccount.getCurrency(), amount);
 
-        // Save accounts
+        // Convert when the accounts hold different currencies
+        long creditAmount = amount;
+        BigDecimal fxRate = null;
+        if (!fromAccount.getCurrency().equals(toAccount.getCurrency())) {
+            fxRate = fxRateService.getRate(fromAccount.getCurrency(), toAccount.getCurrency());
+            creditAmount = Money.times(amount, fxRate);
+            if (creditAmount <= 0) {
+                throw new RuntimeException("Amount is too small to convert");
+            }
+        }
+
+        // Update balance
+        fromAccount.setBalance(Money.toBigDecimal(Money.minus(fromBalance, amount)));
         accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
+        dataVersionService.markChanged(fromAccount.getUserId());
+        changeLogService.recordUpsert(fromAccount.getUserId(), ChangeLogService.ACCOUNT, fromAccount.getId());
 
         // Create transfer record
         Transfer transfer = new Transfer(
             userId,
             transferRequest.getFromAccountId(),
             transferRequest.getToAccountId(),
-            transferRequest.getAmount(),
+            Money.toBigDecimal(amount),
             transferRequest.getDescription()
         );
+        if (fxRate != null) {
+            transfer.setConvertedAmount(Money.toBigDecimal(creditAmount));
+            transfer.setFxRate(fxRate);
+        }
+        return transfer;
+    }
+
+    /**
+     * Loads an account to be credited, locked unless it is hot. Must run
+     * inside a transaction.
+     */
+    private Account lockForCredit(Long accountId, String notFound) {
+        List<Account> locked = accountRepository.lockForTransfer(List.of(accountId), null);
+        if (!locked.isEmpty()) {
+            return locked.get(0);
+        }
+        return accountRepository.findById(accountId).orElseThrow(() -> new RuntimeException(notFound));
+    }
+
+    /**
+     * Credits an account. The caller holds the row lock unless the account
+     * is hot.
+     */
+    private void credit(Account account, long amount) {
+        if (hotAccountService.isHot(account)) {
+            // Leave the contended accounts row alone and credit a slot instead
+            hotAccountService.credit(account, amount);
+        } else {
+            account.setBalance(Money.toBigDecimal(Money.plus(Money.toMinorUnits(account.getBalance()), amount)));
+            accountRepository.save(account);
+            // Hot accounts are logged when their slots are folded in
+            changeLogService.recordUpsert(account.getUserId(), ChangeLogService.ACCOUNT, account.getId());
+        }
+        dataVersionService.markChanged(account.getUserId());
+    }
+
+    private static String describe(TransferRequest transferRequest) {
+        return "from=" + transferRequest.getFromAccountId() + " to=" + transferRequest.getToAccountId()
+                + " amount=" + (transferRequest.getAmount() != null ? transferRequest.getAmount().toPlainString() : null);
+    }
+
+    private static TransferHistoryItem historyItem(ResultSet rs, int row) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new TransferHistoryItem(rs.getLong("id"), rs.getBigDecimal("amount"),
+                rs.getBigDecimal("converted_amount"), rs.getBigDecimal("fx_rate"), rs.getString("description"),
+                rs.getString("status"), createdAt != null ? createdAt.toLocalDateTime() : null,
+                rs.getObject("from_account_id", Long.class), rs.getString("from_account_name"),
+                rs.getString("from_currency"), rs.getObject("to_account_id", Long.class),
+                rs.getString("to_account_name"), rs.getString("to_currency"));
+    }
 
-        return transferRepository.save(transfer);
+    private static long creditedAmount(Transfer transfer) {
+        return Money.toMinorUnits(transfer.getConvertedAmount() != null ? transfer.getConvertedAmount() : transfer.getAmount());
     }
 }
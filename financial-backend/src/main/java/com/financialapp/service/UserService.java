@@ -1,8 +1,12 @@
 package com.financialapp.service;
 
+import com.financialapp.datasource.ShardContext;
+import com.financialapp.datasource.ShardRouter;
 import com.financialapp.dto.SignUpRequest;
 import com.financialapp.model.User;
 import com.financialapp.repository.UserRepository;
+import com.financialapp.security.CachedUser;
+import com.financialapp.security.CachedUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -16,9 +20,15 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private CachedUserDetailsService userDetailsService;
+
     public User createUser(SignUpRequest signUpRequest) {
         // Check if user already exists
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+        if (userDetailsService.findByEmail(signUpRequest.getEmail()).isPresent()) {
             throw new RuntimeException("User with email " + signUpRequest.getEmail() + " already exists");
         }
 
@@ -29,11 +39,27 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(signUpRequest.getPassword()));
         user.setPhoneNumber(signUpRequest.getPhoneNumber());
 
-        return userRepository.save(user);
+        if (!shardRouter.isEnabled()) {
+            return userRepository.save(user);
+        }
+
+        // The id decides the shard, so allocate it before writing the row
+        long userId = shardRouter.nextUserId();
+        try (ShardContext.Scope ignored = shardRouter.bindUser(userId)) {
+            userRepository.insertWithId(userId, user.getEmail(), user.getUsernameField(), user.getPassword(),
+                    user.getPhoneNumber(), user.getRole().name(), user.getCreatedAt(), user.getUpdatedAt());
+            return userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User could not be created"));
+        }
+    }
+
+    public CachedUser findById(Long userId) {
+        return userDetailsService.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
     }
 
-    public User findByEmail(String email) {
-        return userRepository.findByEmail(email)
+    public CachedUser findByEmail(String email) {
+        return userDetailsService.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
     }
 }
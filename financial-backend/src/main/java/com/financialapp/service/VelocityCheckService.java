@@ -0,0 +1,205 @@
+package com.financialapp.service;
+
+import com.financialapp.datasource.ShardRouter;
+import com.financialapp.model.Money;
+import com.financialapp.repository.TransferRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-account and per-user transfer velocity limits, evaluated against
+ * in-memory sliding windows instead of aggregate queries. Windows are
+ * replayed from the last day of transfers at startup. Amounts are summed
+ * in the source account's currency, so a user has one set of windows per
+ * currency they send from, each held to the same limits.
+ */
+@Service
+public class VelocityCheckService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VelocityCheckService.class);
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${velocity.account.per-minute-count}")
+    private long accountMinuteCount;
+
+    @Value("${velocity.account.per-minute-amount}")
+    private BigDecimal accountMinuteAmount;
+
+    @Value("${velocity.account.per-day-count}")
+    private long accountDayCount;
+
+    @Value("${velocity.account.per-day-amount}")
+    private BigDecimal accountDayAmount;
+
+    @Value("${velocity.user.per-minute-count}")
+    private long userMinuteCount;
+
+    @Value("${velocity.user.per-minute-amount}")
+    private BigDecimal userMinuteAmount;
+
+    @Value("${velocity.user.per-day-count}")
+    private long userDayCount;
+
+    @Value("${velocity.user.per-day-amount}")
+    private BigDecimal userDayAmount;
+
+    private final ConcurrentMap<Long, Windows> accountWindows = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<UserCurrency, Windows> userWindows = new ConcurrentHashMap<>();
+
+    // The amount limits in minor units, converted once
+    private long accountMinuteLimit;
+
+    private long accountDayLimit;
+
+    private long userMinuteLimit;
+
+    private long userDayLimit;
+
+    @PostConstruct
+    public void init() {
+        accountMinuteLimit = Money.toMinorUnits(accountMinuteAmount);
+        accountDayLimit = Money.toMinorUnits(accountDayAmount);
+        userMinuteLimit = Money.toMinorUnits(userMinuteAmount);
+        userDayLimit = Money.toMinorUnits(userDayAmount);
+        rebuild();
+    }
+
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        List<Object[]> recent = new ArrayList<>();
+        shardRouter.forEachShard(shard -> recent.addAll(transferRepository.findVelocitySince(since)));
+        for (Object[] row : recent) {
+            long timestamp = toMillis((LocalDateTime) row[0]);
+            long amount = (Long) row[4];
+            if (row[1] != null) {
+                windows(accountWindows, (Long) row[1]).add(timestamp, amount);
+            }
+            windows(userWindows, new UserCurrency((Long) row[2], (String) row[3])).add(timestamp, amount);
+        }
+        logger.info("Rebuilt transfer velocity windows from {} transfers", recent.size());
+    }
+
+    /**
+     * Records the transfer against every window, or throws without recording
+     * anything if any limit would be exceeded. If the surrounding transaction
+     * rolls back, the transfer is taken back out of the windows.
+     *
+     * @param currency the source account's currency
+     * @param amount the transfer amount in minor units of {@code currency}
+     */
+    public void checkAndRecord(Long userId, Long accountId, String currency, long amount) {
+        long now = System.currentTimeMillis();
+
+        // Recorded inside compute, so the evictor cannot drop a window between lookup and update
+        List<SlidingWindow> recorded = new ArrayList<>(4);
+        accountWindows.compute(accountId, (accountKey, existingAccount) -> {
+            Windows account = existingAccount != null ? existingAccount : new Windows();
+            userWindows.compute(new UserCurrency(userId, currency), (userKey, existingUser) -> {
+                Windows user = existingUser != null ? existingUser : new Windows();
+                String violated = null;
+                if (!record(recorded, account.minute, now, amount, accountMinuteCount, accountMinuteLimit)) {
+                    violated = "account per-minute";
+                } else if (!record(recorded, account.day, now, amount, accountDayCount, accountDayLimit)) {
+                    violated = "account daily";
+                } else if (!record(recorded, user.minute, now, amount, userMinuteCount, userMinuteLimit)) {
+                    violated = "per-minute";
+                } else if (!record(recorded, user.day, now, amount, userDayCount, userDayLimit)) {
+                    violated = "daily";
+                }
+                if (violated != null) {
+                    recorded.forEach(window -> window.remove(now, amount));
+                    throw new RuntimeException("Transfer exceeds your " + violated + " transfer limit");
+                }
+                return user;
+            });
+            return account;
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        recorded.forEach(window -> window.remove(now, amount));
+                    }
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelay = 3_600_000L)
+    public void evictIdleWindows() {
+        long now = System.currentTimeMillis();
+        evictIdle(accountWindows, now);
+        evictIdle(userWindows, now);
+    }
+
+    // The idle check and the removal are one step, atomic with checkAndRecord's compute
+    private static <K> void evictIdle(ConcurrentMap<K, Windows> map, long now) {
+        for (K key : map.keySet()) {
+            map.computeIfPresent(key, (k, windows) -> windows.isIdle(now) ? null : windows);
+        }
+    }
+
+    private static boolean record(List<SlidingWindow> recorded, SlidingWindow window, long now, long amount,
+                                  long maxCount, long maxAmount) {
+        if (!window.tryAdd(now, amount, maxCount, maxAmount)) {
+            return false;
+        }
+        recorded.add(window);
+        return true;
+    }
+
+    private static <K> Windows windows(ConcurrentMap<K, Windows> map, K key) {
+        return map.computeIfAbsent(key, k -> new Windows());
+    }
+
+    private static long toMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record UserCurrency(Long userId, String currency) {
+    }
+
+    private static final class Windows {
+
+        // One-second buckets for the minute, fifteen-minute buckets for the day
+        private final SlidingWindow minute = new SlidingWindow(MINUTE_MILLIS, 60);
+
+        private final SlidingWindow day = new SlidingWindow(DAY_MILLIS, 96);
+
+        void add(long timestamp, long amount) {
+            minute.add(timestamp, amount);
+            day.add(timestamp, amount);
+        }
+
+        boolean isIdle(long now) {
+            return minute.isIdle(now) && day.isIdle(now);
+        }
+    }
+}
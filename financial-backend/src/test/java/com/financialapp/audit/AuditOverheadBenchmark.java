@@ -0,0 +1,82 @@
+package com.financialapp.audit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency the audit trail adds to each audited request: building the event,
+ * reserving room and publishing it, from four request threads while a
+ * consumer drains the ring as the writer does. Sample mode reports the
+ * percentiles, p99 included. The database write is off the request path
+ * and not measured; a slow database shows up as back-pressure instead.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AuditOverheadBenchmark {
+
+    private AuditRingBuffer ring;
+
+    private Thread consumer;
+
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void startConsumer() {
+        ring = new AuditRingBuffer(8192);
+        running = true;
+        consumer = new Thread(() -> {
+            List<AuditEvent> batch = new ArrayList<>(500);
+            while (running) {
+                batch.clear();
+                int count = ring.peek(batch, 500);
+                if (count == 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                ring.release(count);
+            }
+        }, "audit-drain");
+        consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopConsumer() throws InterruptedException {
+        running = false;
+        consumer.join();
+    }
+
+    /** What a transfer pays for its audit record, including any wait for room */
+    @Benchmark
+    public void reserveAndPublish() {
+        while (!ring.tryReserve()) {
+            Thread.onSpinWait();
+        }
+        ring.publish(AuditEvent.of(AuditEvent.TRANSFER, 23L, "transfer:1", "from=1 to=2 amount=10.00"));
+    }
+
+    /** Building the event alone, to separate it from the ring hand-off */
+    @Benchmark
+    public AuditEvent buildEvent() {
+        return AuditEvent.of(AuditEvent.TRANSFER, 23L, "transfer:1", "from=1 to=2 amount=10.00");
+    }
+}
@@ -0,0 +1,58 @@
+package com.financialapp.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingBufferTest {
+
+    @Test
+    void openReservationDoesNotHoldUpLaterEvents() {
+        AuditRingBuffer ring = new AuditRingBuffer(4);
+        assertThat(ring.tryReserve()).isTrue(); // a transfer still running
+        assertThat(ring.tryReserve()).isTrue();
+        AuditEvent signin = event("SIGNIN");
+        ring.publish(signin);
+
+        List<AuditEvent> batch = new ArrayList<>();
+        assertThat(ring.peek(batch, 10)).isEqualTo(1);
+        assertThat(batch).containsExactly(signin);
+    }
+
+    @Test
+    void reservationsStopAtCapacityUntilEventsAreReleased() {
+        AuditRingBuffer ring = new AuditRingBuffer(4);
+        for (int i = 0; i < ring.capacity(); i++) {
+            assertThat(ring.tryReserve()).isTrue();
+            ring.publish(event("SIGNIN"));
+        }
+        assertThat(ring.tryReserve()).isFalse();
+
+        ring.peek(new ArrayList<>(), 2);
+        ring.release(2);
+
+        assertThat(ring.tryReserve()).isTrue();
+        assertThat(ring.pending()).isEqualTo(ring.capacity() - 1);
+    }
+
+    @Test
+    void cancelledReservationGivesItsRoomBack() {
+        AuditRingBuffer ring = new AuditRingBuffer(4);
+        for (int i = 0; i < ring.capacity(); i++) {
+            assertThat(ring.tryReserve()).isTrue();
+        }
+        assertThat(ring.tryReserve()).isFalse();
+
+        ring.cancel();
+
+        assertThat(ring.tryReserve()).isTrue();
+        assertThat(ring.peek(new ArrayList<>(), 10)).isZero();
+    }
+
+    private static AuditEvent event(String type) {
+        return AuditEvent.of(type, 23L, null, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.financialapp.config;
+
+import com.financialapp.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SecurityConfigTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsNeedAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().is4xxClientError());
+        mockMvc.perform(get("/actuator/metrics/hikaricp.connections")).andExpect(status().is4xxClientError());
+    }
+}
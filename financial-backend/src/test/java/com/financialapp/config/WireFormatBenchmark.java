@@ -0,0 +1,101 @@
+package com.financialapp.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.financialapp.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializing a 10,000-row {@code GET /transactions} page in each format
+ * the API negotiates, with mappers configured as {@link JacksonConfig}
+ * builds them, plain and gzipped as the server compresses it. The setup
+ * prints the bytes each format puts on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final String[] CATEGORIES = {"Transport", "Food", "Shopping", "Bills", "Other"};
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper mapper;
+
+    private List<Transaction> page;
+
+    @Setup
+    public void page() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        // Spring Boot's defaults plus the Blackbird module JacksonConfig registers
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .modulesToInstall(new BlackbirdModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        Random random = new Random(42);
+        LocalDateTime occurredAt = LocalDateTime.of(2024, 9, 30, 18, 0);
+        page = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Transaction transaction = new Transaction(23L, 1000L + random.nextInt(4),
+                    random.nextInt(4) == 0 ? "CREDIT" : "DEBIT", CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    BigDecimal.valueOf(100 + random.nextInt(500_000), 2),
+                    "POS " + (1000 + random.nextInt(9000)) + " MERCHANT " + random.nextInt(300) + " CAIRO EG");
+            transaction.setId(5_000_000L - i);
+            transaction.setOccurredAt(occurredAt.minusMinutes(7L * i));
+            page.add(transaction);
+        }
+
+        System.out.printf("%n%s: %,d bytes, %,d gzipped%n", format, serialize().length, serializeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * 1024);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(gzip, page);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,93 @@
+package com.financialapp.controller;
+
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** CSV import over HTTP only writes the caller's own accounts */
+class TransactionImportTest extends PostgresIntegrationTest {
+
+    private static final long OTHER_USER_ID = 24L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long account;
+
+    private long otherAccount;
+
+    @BeforeEach
+    void accounts() {
+        account = TestData.createAccount(jdbcTemplate, TestData.USER_ID, "EGP", BigDecimal.ZERO);
+        otherAccount = TestData.createAccount(jdbcTemplate, OTHER_USER_ID, "EGP", BigDecimal.ZERO);
+    }
+
+    @Test
+    void anonymousImportIsRejected() throws Exception {
+        mockMvc.perform(importRequest("account_id,txn_type,amount\n" + account + ",DEBIT,1.00\n"))
+                .andExpect(status().is4xxClientError());
+
+        assertThat(rows(account)).isZero();
+    }
+
+    @Test
+    void rowsAreStoredUnderTheCaller() throws Exception {
+        String csv = "user_id,account_id,txn_type,amount,description\n"
+                + ",%d,DEBIT,1.00,no user\n".formatted(account)
+                + "%d,%d,DEBIT,2.00,own user\n".formatted(TestData.USER_ID, account)
+                + "%d,%d,DEBIT,3.00,someone else\n".formatted(OTHER_USER_ID, otherAccount)
+                + "%d,%d,DEBIT,4.00,their account\n".formatted(TestData.USER_ID, otherAccount);
+
+        mockMvc.perform(importRequest(csv).with(user(TestData.email(TestData.USER_ID))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsImported").value(2))
+                .andExpect(jsonPath("$.rowsRejected").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(4))
+                .andExpect(jsonPath("$.errors[1].line").value(5));
+
+        assertThat(rows(account)).isEqualTo(2);
+        assertThat(rows(otherAccount)).isZero();
+    }
+
+    @Test
+    void rowTheDatabaseRejectsOnlyLosesItself() throws Exception {
+        // Passes validation but overflows NUMERIC(14,2), failing the chunk's COPY
+        String csv = "account_id,txn_type,amount\n"
+                + account + ",DEBIT,1.00\n"
+                + account + ",DEBIT,10000000000000.00\n"
+                + account + ",DEBIT,3.00\n";
+
+        mockMvc.perform(importRequest(csv).with(user(TestData.email(TestData.USER_ID))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsImported").value(2))
+                .andExpect(jsonPath("$.rowsRejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+
+        assertThat(rows(account)).isEqualTo(2);
+    }
+
+    private MockHttpServletRequestBuilder importRequest(String csv) {
+        return post("/transactions/import").contentType("text/csv").content(csv);
+    }
+
+    private int rows(long accountId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM transactions WHERE account_id = ?",
+                Integer.class, accountId);
+    }
+}
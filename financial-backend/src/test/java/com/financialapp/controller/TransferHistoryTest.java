@@ -0,0 +1,55 @@
+package com.financialapp.controller;
+
+import com.financialapp.diagnostics.RequestCostMeter;
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** A page of transfer history is one statement, whatever its size */
+class TransferHistoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void transfers() {
+        long from = TestData.createAccount(jdbcTemplate, TestData.USER_ID, "EGP", new BigDecimal("1000.00"));
+        long to = TestData.createAccount(jdbcTemplate, TestData.USER_ID, "EGP", BigDecimal.ZERO);
+        jdbcTemplate.update("INSERT INTO transfers (user_id, from_account_id, to_account_id, amount, description) "
+                + "SELECT ?, ?, ?, 1.00, 'Transfer ' || n FROM generate_series(1, 101) n", TestData.USER_ID, from, to);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void pageIsOneStatementAfterTheVersion(int size) throws Exception {
+        getPage(1);
+
+        RequestCostMeter.Measured cost = RequestCostMeter.measure(() -> getPage(size));
+
+        // The ETag's version, then the page
+        assertThat(cost.statements()).isEqualTo(2);
+    }
+
+    private void getPage(int size) throws Exception {
+        mockMvc.perform(get("/transfers").param("page", "0").param("size", Integer.toString(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transfers.length()").value(size))
+                .andExpect(jsonPath("$.transfers[0].fromAccountName").exists())
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+}
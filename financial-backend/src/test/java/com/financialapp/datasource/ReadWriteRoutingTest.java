@@ -0,0 +1,121 @@
+package com.financialapp.datasource;
+
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import com.financialapp.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Read-only transactions go to the replica database, everything else to the
+ * primary. The primary is the shared test database; the replica is a
+ * second database on the same server, which is enough to tell them apart.
+ */
+class ReadWriteRoutingTest extends PostgresIntegrationTest {
+
+    private static String replicaUrl;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        registry.add("datasource-routing.enabled", () -> "true");
+        registry.add("datasource-routing.lag-check-interval-ms", () -> "3600000");
+        registry.add("datasource-routing.replicas[0].url", ReadWriteRoutingTest::replicaUrl);
+        registry.add("datasource-routing.replicas[0].username", TestDatabase::username);
+        registry.add("datasource-routing.replicas[0].password", TestDatabase::password);
+    }
+
+    private static synchronized String replicaUrl() {
+        if (replicaUrl == null) {
+            replicaUrl = TestDatabase.create("fapp_routing_replica");
+        }
+        return replicaUrl;
+    }
+
+    @AfterEach
+    void allHealthy() {
+        routingDataSource.getReplicas().keySet().forEach(key -> routingDataSource.setReplicaHealthy(key, true));
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(database(true)).isEqualTo("fapp_routing_replica");
+        assertThat(database(false)).isEqualTo("fapp_test");
+    }
+
+    @Test
+    void pinnedReadOnlyTransactionsUseThePrimary() {
+        try (ShardContext.Scope ignored = ReadWriteRoutingDataSource.readFromPrimary()) {
+            assertThat(database(true)).isEqualTo("fapp_test");
+        }
+        assertThat(database(true)).isEqualTo("fapp_routing_replica");
+    }
+
+    @Test
+    void eTagGuardedReadsAreAnsweredFromThePrimary() throws Exception {
+        // The same account id exists on both sides, with a different name on each
+        JdbcTemplate replica = new JdbcTemplate(routingDataSource.getReplicas().values().iterator().next());
+        long primaryId = TestData.createAccount(jdbcTemplate, TestData.USER_ID, "EGP", BigDecimal.ONE);
+        long replicaId = TestData.createAccount(replica, TestData.USER_ID, "EGP", BigDecimal.ONE);
+        jdbcTemplate.update("UPDATE accounts SET name = 'On primary' WHERE id = ?", primaryId);
+        replica.update("UPDATE accounts SET name = 'On replica' WHERE id = ?", replicaId);
+
+        mockMvc.perform(get("/accounts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.name == 'On primary')]").exists())
+                .andExpect(jsonPath("$[?(@.name == 'On replica')]").doesNotExist());
+    }
+
+    @Test
+    void unhealthyReplicaFallsBackToThePrimary() {
+        routingDataSource.getReplicas().keySet().forEach(key -> routingDataSource.setReplicaHealthy(key, false));
+
+        assertThat(database(true)).isEqualTo("fapp_test");
+    }
+
+    @Test
+    void caughtUpReplicaStaysInRotation() {
+        // A standalone server is never behind, however long since its last write
+        routingDataSource.getReplicas().keySet().forEach(key -> routingDataSource.setReplicaHealthy(key, false));
+
+        replicaLagMonitor.checkReplicas();
+
+        assertThat(database(true)).isEqualTo("fapp_routing_replica");
+    }
+
+    private String database(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        Map<String, Object> row = template.execute(status -> jdbcTemplate.queryForMap("SELECT current_database() AS db"));
+        return (String) row.get("db");
+    }
+}
@@ -0,0 +1,281 @@
+package com.financialapp.datasource;
+
+import com.financialapp.dto.TransferHistoryItem;
+import com.financialapp.dto.TransferRequest;
+import com.financialapp.model.Account;
+import com.financialapp.model.Transfer;
+import com.financialapp.service.AccountService;
+import com.financialapp.service.StatementService;
+import com.financialapp.service.TransferService;
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import com.financialapp.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.YearMonth;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Users spread over two databases. Shard 0 is the shared test database and
+ * shard 1 a second database on the same server, whose sequences start far
+ * above shard 0's so ids stay unique across both.
+ */
+class ShardingTest extends PostgresIntegrationTest {
+
+    private static String shardUrl;
+
+    private static Path statementsDir;
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardOverrideStore shardOverrideStore;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        registry.add("sharding.enabled", () -> "true");
+        registry.add("sharding.reconcile-interval-ms", () -> "3600000");
+        // A move waits out two directory refreshes before deleting the source copy
+        registry.add("sharding.directory-refresh-ms", () -> "500");
+        registry.add("sharding.shards[0].url", ShardingTest::shardUrl);
+        registry.add("sharding.shards[0].username", TestDatabase::username);
+        registry.add("sharding.shards[0].password", TestDatabase::password);
+        registry.add("statements.output-dir", ShardingTest::statementsDir);
+    }
+
+    private static synchronized String shardUrl() {
+        if (shardUrl == null) {
+            shardUrl = TestDatabase.create("fapp_shard_1");
+            new JdbcTemplate(new DriverManagerDataSource(shardUrl, TestDatabase.username(), TestDatabase.password()))
+                    .execute("SELECT setval(oid, 1000000000) FROM pg_class WHERE relkind = 'S'");
+        }
+        return shardUrl;
+    }
+
+    private static synchronized String statementsDir() {
+        if (statementsDir == null) {
+            try {
+                statementsDir = Files.createTempDirectory("statements");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return statementsDir.toString();
+    }
+
+    @Test
+    void transactionalReadsRunOnTheUsersShard() {
+        long user = userOn(1, 300_000);
+        long account = TestData.createAccount(shard(1), user, "EGP", BigDecimal.ONE);
+
+        // Binds inside a @Transactional method, after the transaction has begun
+        assertThat(accountService.getAccountsByUserId(user)).extracting(Account::getId).containsExactly(account);
+    }
+
+    @Test
+    void crossShardTransferReachesTheRecipientsHistoryAndStatement() throws Exception {
+        long sender = userOn(0, 100_000);
+        long recipient = userOn(1, 100_000);
+        long from = TestData.createAccount(shard(0), sender, "EGP", new BigDecimal("100.00"));
+        long to = TestData.createAccount(shard(1), recipient, "EGP", BigDecimal.ZERO);
+
+        Transfer transfer = transferService.processTransfer(sender,
+                new TransferRequest(from, to, new BigDecimal("30.00"), "Rent share"));
+
+        assertThat(transfer.getStatus()).isEqualTo(Transfer.STATUS_COMPLETED);
+        assertThat(balance(0, from)).isEqualByComparingTo("70.00");
+        assertThat(balance(1, to)).isEqualByComparingTo("30.00");
+        assertThat(transferStatus(transfer.getId())).isEqualTo(Transfer.STATUS_COMPLETED);
+        assertThat(creditStatus(transfer.getId())).isEqualTo("CREDITED");
+
+        assertThat(transferService.getTransferHistory(recipient, 0, 20).getContent())
+                .extracting(TransferHistoryItem::getId, TransferHistoryItem::getToAccountId,
+                        TransferHistoryItem::getStatus)
+                .containsOnlyOnce(tuple(transfer.getId(), to, "COMPLETED"));
+
+        YearMonth month = YearMonth.now();
+        statementService.generate(month);
+        assertThat(Files.readString(statementsDir.resolve(month.toString()).resolve("user-" + recipient + ".csv")))
+                .contains("Rent share");
+    }
+
+    @Test
+    void reconcilerRefundsATransferThatNeverReachedItsDestination() {
+        long sender = userOn(0, 100_000);
+        long recipient = userOn(1, 100_000);
+        long from = TestData.createAccount(shard(0), sender, "EGP", new BigDecimal("70.00"));
+        long to = TestData.createAccount(shard(1), recipient, "EGP", BigDecimal.ZERO);
+        long transfer = pendingTransfer(sender, from, to);
+
+        transferService.reconcilePendingTransfers();
+
+        assertThat(transferStatus(transfer)).isEqualTo(Transfer.STATUS_FAILED);
+        assertThat(creditStatus(transfer)).isEqualTo("VOIDED");
+        assertThat(balance(0, from)).isEqualByComparingTo("100.00");
+        assertThat(balance(1, to)).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void reconcilerCompletesATransferThatWasCredited() {
+        long sender = userOn(0, 100_000);
+        long recipient = userOn(1, 100_000);
+        long from = TestData.createAccount(shard(0), sender, "EGP", new BigDecimal("70.00"));
+        long to = TestData.createAccount(shard(1), recipient, "EGP", new BigDecimal("30.00"));
+        long transfer = pendingTransfer(sender, from, to);
+        shard(1).update("INSERT INTO transfer_credits (transfer_id, user_id, account_id, from_account_id, amount, "
+                + "status, created_at) VALUES (?, ?, ?, ?, 30.00, 'CREDITED', now())", transfer, recipient, to, from);
+
+        transferService.reconcilePendingTransfers();
+
+        assertThat(transferStatus(transfer)).isEqualTo(Transfer.STATUS_COMPLETED);
+        assertThat(balance(0, from)).isEqualByComparingTo("70.00");
+        assertThat(balance(1, to)).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void moveTakesBudgetAlertsAndLeavesTheAuditLogOnShardZero() throws Exception {
+        long user = ringUser(1, 200_000);
+        shardOverrideStore.pin(user, 0);
+        JdbcTemplate source = shard(0);
+        TestData.createAccount(source, user, "EGP", BigDecimal.TEN);
+        long budget = source.queryForObject("INSERT INTO budgets (user_id, category, monthly_limit, month, year) "
+                + "VALUES (?, 'Food', 100.00, 1, 2026) RETURNING id", Long.class, user);
+        source.update("INSERT INTO budget_alerts (budget_id, threshold, user_id) VALUES (?, 50, ?)", budget, user);
+        // Negative seq keeps clear of the audit writer's own sequence
+        source.update("INSERT INTO audit_log (seq, occurred_at, event_type, user_id, prev_hash, hash) "
+                + "VALUES (?, now(), 'SIGNIN', ?, repeat('0', 64), repeat('0', 64))", -user, user);
+
+        shardRebalancer.move();
+
+        assertThat(shardDirectory.getOverrides()).doesNotContainKey(user);
+        assertThat(count(1, "SELECT count(*) FROM budgets WHERE user_id = ?", user)).isEqualTo(1);
+        assertThat(count(1, "SELECT count(*) FROM budget_alerts WHERE budget_id = ?", budget)).isEqualTo(1);
+        assertThat(count(0, "SELECT count(*) FROM users WHERE id = ?", user)).isZero();
+        assertThat(count(1, "SELECT count(*) FROM audit_log WHERE user_id = ?", user)).isZero();
+        assertThat(count(0, "SELECT count(*) FROM audit_log WHERE user_id = ?", user)).isEqualTo(1);
+    }
+
+    @Test
+    void moveWaitsForWritesUnderWayAndFencesLaterOnes() throws Exception {
+        long user = ringUser(1, 250_000);
+        shardOverrideStore.pin(user, 0);
+        TestData.ensureUser(shard(0), user);
+        try (Connection writer = shards.getShard(0).getConnection()) {
+            writer.setAutoCommit(false);
+            try (PreparedStatement insert = writer.prepareStatement("INSERT INTO notifications "
+                    + "(user_id, title, body, notif_type) VALUES (?, 'Under way', '', 'SYSTEM')")) {
+                insert.setLong(1, user);
+                insert.executeUpdate();
+            }
+            CompletableFuture<Integer> move = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return shardRebalancer.move();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+            Thread.sleep(500);
+            assertThat(move).isNotDone();
+            writer.commit();
+
+            // Fenced on shard 0 until the source copy goes
+            await(() -> count(0, "SELECT count(*) FROM shard_moves WHERE user_id = ?", user) == 1);
+            assertThatThrownBy(() -> shard(0).update("INSERT INTO notifications (user_id, title, body, notif_type) "
+                    + "VALUES (?, 'Too late', '', 'SYSTEM')", user))
+                    .hasMessageContaining("is being moved to another shard");
+            move.get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(count(1, "SELECT count(*) FROM notifications WHERE user_id = ?", user)).isEqualTo(1);
+        assertThat(count(0, "SELECT count(*) FROM users WHERE id = ?", user)).isZero();
+        // The fence triggers only stay while a move runs
+        assertThat(shard(0).queryForObject("SELECT count(*) FROM pg_trigger WHERE tgname = 'shard_move_fence'",
+                Integer.class)).isZero();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /** The first user id from {@code from} up that the ring puts on {@code shard}, created there */
+    private long userOn(int shard, long from) {
+        long userId = ringUser(shard, from);
+        TestData.ensureUser(shard(shard), userId);
+        return userId;
+    }
+
+    private long ringUser(int shard, long from) {
+        long userId = from;
+        while (shardDirectory.ringShardFor(userId) != shard) {
+            userId++;
+        }
+        return userId;
+    }
+
+    // A transfer the saga debited but never finished, old enough for the reconciler
+    private long pendingTransfer(long sender, long from, long to) {
+        return shard(0).queryForObject("INSERT INTO transfers (user_id, from_account_id, to_account_id, amount, "
+                + "description, status, created_at) VALUES (?, ?, ?, 30.00, 'Stuck', 'PENDING', "
+                + "now() - interval '1 hour') RETURNING id", Long.class, sender, from, to);
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(shards.getShard(shard));
+    }
+
+    private BigDecimal balance(int shard, long accountId) {
+        return shard(shard).queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+    }
+
+    private String transferStatus(long transferId) {
+        return shard(0).queryForObject("SELECT status FROM transfers WHERE id = ?", String.class, transferId);
+    }
+
+    private String creditStatus(long transferId) {
+        return shard(1).queryForObject("SELECT status FROM transfer_credits WHERE transfer_id = ?", String.class,
+                transferId);
+    }
+
+    private int count(int shard, String sql, long id) {
+        return shard(shard).queryForObject(sql, Integer.class, id);
+    }
+}
@@ -0,0 +1,93 @@
+package com.financialapp.diagnostics;
+
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement and allocation budgets of the hot routes. A change that adds a
+ * query to one of them, or allocates far more per call, fails the build.
+ * Each route is called once first, so class loading and one-off caches are
+ * not counted.
+ */
+class RequestBudgetTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long from;
+
+    private long to;
+
+    @BeforeEach
+    void accounts() {
+        from = TestData.createAccount(jdbcTemplate, TestData.USER_ID, "EGP", new BigDecimal("1000.00"));
+        to = TestData.createAccount(jdbcTemplate, TestData.USER_ID, "EGP", new BigDecimal("0.00"));
+    }
+
+    @Test
+    void getAccountsIsTwoStatements() throws Exception {
+        getAccounts();
+
+        RequestCostMeter.Measured cost = RequestCostMeter.measure(this::getAccounts);
+
+        // The ETag's version, then the rows
+        assertThat(cost.statements()).isEqualTo(2);
+        assertThat(cost.allocatedBytes()).isLessThan(512 * 1024);
+    }
+
+    @Test
+    void getTransactionsIsTwoStatements() throws Exception {
+        getTransactions();
+
+        RequestCostMeter.Measured cost = RequestCostMeter.measure(this::getTransactions);
+
+        // The ETag's version, then the rows
+        assertThat(cost.statements()).isEqualTo(2);
+        assertThat(cost.allocatedBytes()).isLessThan(1024 * 1024);
+    }
+
+    @Test
+    void postTransferIsSixStatements() throws Exception {
+        transfer();
+
+        RequestCostMeter.Measured cost = RequestCostMeter.measure(this::transfer);
+
+        // Lock both accounts in one statement, update both balances, insert the transfer, bump the data version
+        // and append the change-log row
+        assertThat(cost.statements()).isEqualTo(6);
+        assertThat(cost.allocatedBytes()).isLessThan(768 * 1024);
+    }
+
+    private void getAccounts() throws Exception {
+        mockMvc.perform(get("/accounts")).andExpect(status().isOk());
+    }
+
+    private void getTransactions() throws Exception {
+        mockMvc.perform(get("/transactions")).andExpect(status().isOk());
+    }
+
+    private void transfer() throws Exception {
+        mockMvc.perform(post("/transfers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccountId\":" + from + ",\"toAccountId\":" + to + ",\"amount\":1.00}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+}
@@ -0,0 +1,34 @@
+package com.financialapp.diagnostics;
+
+/**
+ * Measures the JDBC statements and allocated bytes of one piece of work on
+ * the calling thread, including fan-out tasks that it hands to the
+ * application's executors. Statements are only counted on a data source
+ * wrapped in {@link StatementCountingDataSource}.
+ */
+public final class RequestCostMeter {
+
+    private RequestCostMeter() {
+    }
+
+    public static Measured measure(Work work) throws Exception {
+        RequestCost cost = new RequestCost();
+        RequestCost previous = RequestCost.bind(cost);
+        long start = RequestCost.threadAllocatedBytes();
+        try {
+            work.run();
+        } finally {
+            cost.addAllocated(RequestCost.threadAllocatedBytes() - start);
+            RequestCost.restore(previous);
+        }
+        return new Measured(cost.statements(), cost.allocatedBytes());
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    public record Measured(int statements, long allocatedBytes) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.financialapp.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts every statement execution against the current {@link RequestCost},
+ * whether it comes from Hibernate, a JdbcTemplate or plain JDBC. A batch
+ * counts once, since it is one round trip. COPY goes through the driver's
+ * own API and is not counted.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private static Connection countingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(proxy, target, method, args);
+                    return switch (method.getName()) {
+                        case "createStatement" -> countingStatement(Statement.class, result);
+                        case "prepareStatement" -> countingStatement(PreparedStatement.class, result);
+                        case "prepareCall" -> countingStatement(CallableStatement.class, result);
+                        default -> result;
+                    };
+                });
+    }
+
+    private static Object countingStatement(Class<? extends Statement> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                RequestCost.recordStatement();
+            }
+            return invoke(proxy, target, method, args);
+        };
+        return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // Identity semantics, since Hibernate keeps statements as map keys
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.financialapp.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totalling a month of statement lines, 10,000 amounts, the way each path
+ * reads them: BigDecimal sums as before Money, BigDecimal values converted
+ * to minor units (the entity boundary), and longs read straight from
+ * {@link Money#minorUnitsSql} columns. Run with {@code -prof gc} for the
+ * allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    private static final int LINES = 10_000;
+
+    private BigDecimal[] decimals;
+
+    private long[] minorUnits;
+
+    @Setup
+    public void amounts() {
+        Random random = new Random(42);
+        decimals = new BigDecimal[LINES];
+        minorUnits = new long[LINES];
+        for (int i = 0; i < LINES; i++) {
+            minorUnits[i] = random.nextInt(1_000_000) - 500_000;
+            decimals[i] = BigDecimal.valueOf(minorUnits[i], Money.SCALE);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalSum() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    /** The conversion Money used before, through setScale().unscaledValue() */
+    @Benchmark
+    public long unscaledValueSum() {
+        long total = 0;
+        for (BigDecimal amount : decimals) {
+            total = Math.addExact(total, amount.setScale(Money.SCALE, RoundingMode.UNNECESSARY)
+                    .unscaledValue().longValueExact());
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long toMinorUnitsSum() {
+        long total = 0;
+        for (BigDecimal amount : decimals) {
+            total = Money.plus(total, Money.toMinorUnits(amount));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long minorUnitsSum() {
+        long total = 0;
+        for (long amount : minorUnits) {
+            total = Money.plus(total, amount);
+        }
+        return total;
+    }
+}
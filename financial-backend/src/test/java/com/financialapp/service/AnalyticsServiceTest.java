@@ -0,0 +1,57 @@
+package com.financialapp.service;
+
+import com.financialapp.model.Transaction;
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AnalyticsServiceTest extends PostgresIntegrationTest {
+
+    private static final long USER_ID = 400_000L;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void totalsAreKeptApartByCurrency() {
+        long egp = TestData.createAccount(jdbcTemplate, USER_ID, "EGP", BigDecimal.ZERO);
+        long usd = TestData.createAccount(jdbcTemplate, USER_ID, "USD", BigDecimal.ZERO);
+        insert(egp, "DEBIT", "500.00");
+        insert(usd, "DEBIT", "10.00");
+        YearMonth month = YearMonth.now();
+
+        assertThat(analyticsService.getCashFlow(USER_ID, month, month))
+                .extracting(row -> row.get("currency"), row -> row.get("expense"))
+                .containsExactly(tuple("EGP", new BigDecimal("500.00")), tuple("USD", new BigDecimal("10.00")));
+
+        // An account opened after the build drops the cached series, so the next read rebuilds it
+        long usdSavings = TestData.createAccount(jdbcTemplate, USER_ID, "USD", BigDecimal.ZERO);
+        Transaction late = new Transaction(USER_ID, usdSavings, "DEBIT", "Food", new BigDecimal("5.00"), "late");
+        late.setOccurredAt(LocalDateTime.now());
+        analyticsService.onCommitted(List.of(late));
+        insert(usdSavings, "DEBIT", "5.00");
+
+        assertThat(analyticsService.getCategoryBreakdown(USER_ID, month.atDay(1), LocalDate.now(), true))
+                .extracting(row -> row.get("currency"), row -> row.get("amount"))
+                .containsExactly(tuple("EGP", new BigDecimal("500.00")), tuple("USD", new BigDecimal("15.00")));
+    }
+
+    private void insert(long accountId, String type, String amount) {
+        jdbcTemplate.update("INSERT INTO transactions (user_id, account_id, txn_type, category, amount, description) "
+                + "VALUES (?, ?, ?, 'Food', ?, 'test')", USER_ID, accountId, type, new BigDecimal(amount));
+    }
+}
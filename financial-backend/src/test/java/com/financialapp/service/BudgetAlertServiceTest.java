@@ -0,0 +1,47 @@
+package com.financialapp.service;
+
+import com.financialapp.model.Transaction;
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BudgetAlertServiceTest extends PostgresIntegrationTest {
+
+    private static final long USER_ID = 450_000L;
+
+    @Autowired
+    private BudgetAlertService budgetAlertService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void budgetCreatedAfterADebitCountsTheNextOne() {
+        long account = TestData.createAccount(jdbcTemplate, USER_ID, "EGP", BigDecimal.ZERO);
+        LocalDateTime now = LocalDateTime.now();
+        budgetAlertService.onTransaction(debit(account, now, "30.00"));
+
+        // Written straight to the database, as another instance or a script would
+        jdbcTemplate.update("INSERT INTO budgets (user_id, category, monthly_limit, month, year) "
+                + "VALUES (?, 'Food', 100.00, ?, ?)", USER_ID, now.getMonthValue(), now.getYear());
+        budgetAlertService.onTransaction(debit(account, now, "60.00"));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT spent FROM budgets WHERE user_id = ? AND category = 'Food'",
+                BigDecimal.class, USER_ID)).isEqualByComparingTo("60.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM notifications WHERE user_id = ? "
+                + "AND notif_type = 'BUDGET'", Integer.class, USER_ID)).isEqualTo(1);
+    }
+
+    private static Transaction debit(long account, LocalDateTime at, String amount) {
+        Transaction transaction = new Transaction(USER_ID, account, "DEBIT", "Food", new BigDecimal(amount), "Groceries");
+        transaction.setOccurredAt(at);
+        return transaction;
+    }
+}
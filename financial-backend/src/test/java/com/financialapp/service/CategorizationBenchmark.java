@@ -0,0 +1,100 @@
+package com.financialapp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classifications per second on one thread: the compiled
+ * {@link KeywordAutomaton} that {@link CategorizationService#categorize}
+ * runs, against checking every rule with {@code contains} in turn. The
+ * rules are generated merchant names; about half of the bank-style
+ * descriptions mention one of them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategorizationBenchmark {
+
+    private static final String[] CATEGORIES = {"Transport", "Food", "Shopping", "Bills", "Entertainment"};
+
+    private static final int DESCRIPTIONS = 1024;
+
+    @Param({"100", "5000"})
+    private int rules;
+
+    private KeywordAutomaton automaton;
+
+    private List<KeywordAutomaton.Keyword> keywords;
+
+    private String[] descriptions;
+
+    private int next;
+
+    @Setup
+    public void rules() {
+        Random random = new Random(42);
+        keywords = new ArrayList<>(rules);
+        for (int i = 0; i < rules; i++) {
+            keywords.add(new KeywordAutomaton.Keyword(merchant(random), CATEGORIES[i % CATEGORIES.length], 0));
+        }
+        automaton = KeywordAutomaton.compile(keywords);
+
+        descriptions = new String[DESCRIPTIONS];
+        for (int i = 0; i < DESCRIPTIONS; i++) {
+            String merchant = random.nextBoolean()
+                    ? keywords.get(random.nextInt(rules)).text().toUpperCase(Locale.ROOT)
+                    : merchant(random).toUpperCase(Locale.ROOT);
+            descriptions[i] = "POS " + (1000 + random.nextInt(9000)) + " " + merchant + " CAIRO EG "
+                    + (random.nextInt(28) + 1) + "/09";
+        }
+    }
+
+    @Benchmark
+    public String automaton() {
+        return automaton.match(nextDescription());
+    }
+
+    /** What one contains() per rule would cost, with the same precedence (all priorities are equal) */
+    @Benchmark
+    public String containsPerRule() {
+        String text = nextDescription().toLowerCase(Locale.ROOT);
+        KeywordAutomaton.Keyword best = null;
+        for (KeywordAutomaton.Keyword keyword : keywords) {
+            if (text.contains(keyword.text()) && (best == null || keyword.text().length() > best.text().length())) {
+                best = keyword;
+            }
+        }
+        return best != null ? best.value() : null;
+    }
+
+    private String nextDescription() {
+        return descriptions[next++ & (DESCRIPTIONS - 1)];
+    }
+
+    private static String merchant(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = 5 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return name.toString();
+    }
+}
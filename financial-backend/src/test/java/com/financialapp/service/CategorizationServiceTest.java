@@ -0,0 +1,54 @@
+package com.financialapp.service;
+
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategorizationServiceTest extends PostgresIntegrationTest {
+
+    private static final long USER_ID = 420_000L;
+
+    @Autowired
+    private CategorizationService categorizationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recategorizedDebitMovesToTheNewBudget() throws Exception {
+        jdbcTemplate.update("INSERT INTO category_rules (keyword, category) VALUES ('zzrideshare', 'Transport') "
+                + "ON CONFLICT DO NOTHING");
+        categorizationService.reloadIfChanged();
+        long account = TestData.createAccount(jdbcTemplate, USER_ID, "EGP", BigDecimal.ZERO);
+        budget("Other", "100.00", "40.00");
+        budget("Transport", "50.00", "0.00");
+        jdbcTemplate.update("INSERT INTO transactions (user_id, account_id, txn_type, category, amount, description) "
+                + "VALUES (?, ?, 'DEBIT', 'Other', 40.00, 'ZZRIDESHARE trip')", USER_ID, account);
+
+        categorizationService.recategorize(false);
+
+        assertThat(spent("Other")).isEqualByComparingTo("0.00");
+        assertThat(spent("Transport")).isEqualByComparingTo("40.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM notifications WHERE user_id = ? "
+                + "AND notif_type = 'BUDGET'", Integer.class, USER_ID)).isEqualTo(2);
+    }
+
+    private void budget(String category, String limit, String spent) {
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.update("INSERT INTO budgets (user_id, category, monthly_limit, month, year, spent) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", USER_ID, category, new BigDecimal(limit), today.getMonthValue(),
+                today.getYear(), new BigDecimal(spent));
+    }
+
+    private BigDecimal spent(String category) {
+        return jdbcTemplate.queryForObject("SELECT spent FROM budgets WHERE user_id = ? AND category = ?",
+                BigDecimal.class, USER_ID, category);
+    }
+}
@@ -0,0 +1,44 @@
+package com.financialapp.service;
+
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataVersionServiceTest extends PostgresIntegrationTest {
+
+    private static final long USER_ID = 440_000L;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void versionMovesOncePerCommittedTransaction() {
+        TestData.ensureUser(jdbcTemplate, USER_ID);
+        long before = dataVersionService.currentVersion(USER_ID);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            dataVersionService.markChanged(USER_ID);
+            dataVersionService.markChanged(USER_ID);
+        });
+        transaction.executeWithoutResult(status -> {
+            dataVersionService.markChanged(USER_ID);
+            status.setRollbackOnly();
+        });
+
+        assertThat(dataVersionService.currentVersion(USER_ID)).isEqualTo(before + 1);
+        assertThat(dataVersionService.eTag("accounts", USER_ID)).isEqualTo("\"accounts-" + (before + 1) + "\"");
+    }
+}
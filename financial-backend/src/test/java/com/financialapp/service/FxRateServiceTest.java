@@ -0,0 +1,30 @@
+package com.financialapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FxRateServiceTest {
+
+    @Test
+    void rateHasTheScaleItIsStoredWith(@TempDir Path dir) throws Exception {
+        Path rates = Files.writeString(dir.resolve("fx-rates.properties"), "USD=1\nEGP=0.0203\n");
+        FxRateService fx = new FxRateService();
+        ReflectionTestUtils.setField(fx, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(fx, "ratesFile", rates.toUri().toString());
+        fx.init();
+
+        BigDecimal rate = fx.getRate("USD", "EGP");
+
+        // 1 / 0.0203 = 49.2610837438...
+        assertThat(rate.scale()).isEqualTo(FxRateService.RATE_SCALE);
+        assertThat(rate).isEqualTo(new BigDecimal("49.26108374"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.financialapp.service;
+
+import com.financialapp.support.TestDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credits per second into one account from 16 threads, each its own
+ * connection and transaction: locking the accounts row and updating it,
+ * as a non-hot account is credited, against the slot upsert a hot account
+ * with 8 slots takes. Needs PostgreSQL; the {@code fapp_bench} database
+ * is recreated on the server the tests use, so pass
+ * {@code -jvmArgsAppend -Dtest.postgres.url=...} when running as root.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 8, time = 5)
+@Fork(1)
+@Threads(16)
+public class HotAccountBenchmark {
+
+    private static final int SLOTS = 8;
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        String url;
+
+        long accountId;
+
+        @Setup(Level.Trial)
+        public void create() throws SQLException {
+            url = TestDatabase.create("fapp_bench");
+            try (Connection connection = connect(url);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO users (id, email, username, password, role) "
+                        + "VALUES (1, 'bench@example.com', 'bench', 'x', 'USER') ON CONFLICT (id) DO NOTHING");
+                try (ResultSet rs = statement.executeQuery("INSERT INTO accounts (user_id, name, type, currency, balance, "
+                        + "hot_slots) VALUES (1, 'Merchant', 'CHECKING', 'EGP', 0, " + SLOTS + ") RETURNING id")) {
+                    rs.next();
+                    accountId = rs.getLong(1);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+
+        PreparedStatement lock;
+
+        PreparedStatement update;
+
+        PreparedStatement slotCredit;
+
+        @Setup(Level.Trial)
+        public void open(Database database) throws SQLException {
+            connection = connect(database.url);
+            connection.setAutoCommit(false);
+            lock = connection.prepareStatement("SELECT balance FROM accounts WHERE id = ? FOR UPDATE");
+            update = connection.prepareStatement("UPDATE accounts SET balance = balance + ? WHERE id = ?");
+            // The statement AccountBalanceSlotRepository.credit runs
+            slotCredit = connection.prepareStatement("INSERT INTO account_balance_slots (account_id, slot, balance) "
+                    + "VALUES (?, ?, ?) ON CONFLICT (account_id, slot) "
+                    + "DO UPDATE SET balance = account_balance_slots.balance + EXCLUDED.balance");
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void lockedRow(Database database, Session session) throws SQLException {
+        session.lock.setLong(1, database.accountId);
+        try (ResultSet rs = session.lock.executeQuery()) {
+            rs.next();
+        }
+        session.update.setBigDecimal(1, AMOUNT);
+        session.update.setLong(2, database.accountId);
+        session.update.executeUpdate();
+        session.connection.commit();
+    }
+
+    @Benchmark
+    public void striped(Database database, Session session) throws SQLException {
+        session.slotCredit.setLong(1, database.accountId);
+        session.slotCredit.setInt(2, ThreadLocalRandom.current().nextInt(SLOTS));
+        session.slotCredit.setBigDecimal(3, AMOUNT);
+        session.slotCredit.executeUpdate();
+        session.connection.commit();
+    }
+
+    private static Connection connect(String url) throws SQLException {
+        return DriverManager.getConnection(url, TestDatabase.username(), TestDatabase.password());
+    }
+}
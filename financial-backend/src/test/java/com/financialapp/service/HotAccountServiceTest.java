@@ -0,0 +1,77 @@
+package com.financialapp.service;
+
+import com.financialapp.dto.TransferRequest;
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotAccountServiceTest extends PostgresIntegrationTest {
+
+    private static final long USER_ID = 430_000L;
+
+    private static final int TRANSFERS = 8;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compactionAndDebitsDoNotLoseUpdates() throws Exception {
+        long from = TestData.createAccount(jdbcTemplate, USER_ID, "EGP", new BigDecimal("1000.00"));
+        long to = TestData.createAccount(jdbcTemplate, USER_ID, "EGP", BigDecimal.ZERO);
+        // Credits left in slots by an account that has since been switched back from hot
+        for (int slot = 0; slot < 4; slot++) {
+            jdbcTemplate.update("INSERT INTO account_balance_slots (account_id, slot, balance) VALUES (?, ?, 12.50)",
+                    from, slot);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(TRANSFERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> running = new ArrayList<>();
+        try {
+            running.add(executor.submit(() -> {
+                start.await();
+                hotAccountService.compact();
+                return null;
+            }));
+            for (int i = 0; i < TRANSFERS; i++) {
+                running.add(executor.submit(() -> {
+                    start.await();
+                    return transferService.processTransfer(USER_ID,
+                            new TransferRequest(from, to, new BigDecimal("1.00"), "race"));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        hotAccountService.compact();
+
+        assertThat(balance(from)).isEqualByComparingTo("1042.00");
+        assertThat(balance(to)).isEqualByComparingTo("8.00");
+    }
+
+    private BigDecimal balance(long accountId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+    }
+}
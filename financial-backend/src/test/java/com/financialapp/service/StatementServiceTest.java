@@ -0,0 +1,53 @@
+package com.financialapp.service;
+
+import com.financialapp.support.PostgresIntegrationTest;
+import com.financialapp.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementServiceTest extends PostgresIntegrationTest {
+
+    private static final long USER_ID = 410_000L;
+
+    private static Path statementsDir;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void statements(DynamicPropertyRegistry registry) throws IOException {
+        statementsDir = Files.createTempDirectory("statements");
+        registry.add("statements.output-dir", statementsDir::toString);
+    }
+
+    @Test
+    void closingBalanceIncludesUnfoldedSlots() throws Exception {
+        long account = TestData.createAccount(jdbcTemplate, USER_ID, "EGP", new BigDecimal("10.00"));
+        jdbcTemplate.update("UPDATE accounts SET hot_slots = 2 WHERE id = ?", account);
+        jdbcTemplate.update("INSERT INTO account_balance_slots (account_id, slot, balance) VALUES (?, 0, 5.00)",
+                account);
+        jdbcTemplate.update("INSERT INTO transactions (user_id, account_id, txn_type, category, amount, description) "
+                + "VALUES (?, ?, 'CREDIT', 'Salary', 5.00, 'pay')", USER_ID, account);
+
+        YearMonth month = YearMonth.now();
+        statementService.generate(month);
+
+        assertThat(Files.readAllLines(statementsDir.resolve(month.toString()).resolve("user-" + USER_ID + ".csv")))
+                .anySatisfy(line -> assertThat(line).startsWith("OPENING,").endsWith(",10.00"))
+                .anySatisfy(line -> assertThat(line).startsWith("CLOSING,").endsWith(",15.00"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.financialapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VelocityCheckServiceTest {
+
+    private final VelocityCheckService velocity = new VelocityCheckService();
+
+    @BeforeEach
+    void limits() {
+        for (String scope : new String[] {"account", "user"}) {
+            for (String span : new String[] {"Minute", "Day"}) {
+                ReflectionTestUtils.setField(velocity, scope + span + "Count", 100L);
+                ReflectionTestUtils.setField(velocity, scope + span + "Limit", 10_000L);
+            }
+        }
+    }
+
+    @Test
+    void userLimitsAreKeptPerCurrency() {
+        velocity.checkAndRecord(23L, 1L, "EGP", 8_000L);
+
+        assertThatCode(() -> velocity.checkAndRecord(23L, 2L, "USD", 8_000L))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> velocity.checkAndRecord(23L, 3L, "EGP", 8_000L))
+                .hasMessageContaining("per-minute");
+    }
+
+    @Test
+    void evictionKeepsWindowsThatAreInUse() {
+        velocity.checkAndRecord(23L, 1L, "EGP", 8_000L);
+
+        velocity.evictIdleWindows();
+
+        assertThatThrownBy(() -> velocity.checkAndRecord(23L, 1L, "EGP", 8_000L))
+                .hasMessageContaining("account per-minute");
+    }
+}
@@ -0,0 +1,67 @@
+package com.financialapp.support;
+
+import com.financialapp.diagnostics.StatementCountingDataSource;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+
+/**
+ * Base for tests that run the whole application against a fresh PostgreSQL
+ * database. Subclasses share one application context and one database, so
+ * they should create their own rows rather than count on an empty table.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(PostgresIntegrationTest.StatementCounting.class)
+public abstract class PostgresIntegrationTest {
+
+    private static String url;
+
+    @BeforeAll
+    static void requireDatabase() {
+        String reason = TestDatabase.unavailableReason();
+        Assumptions.assumeTrue(reason == null, reason);
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PostgresIntegrationTest::url);
+        registry.add("spring.datasource.username", TestDatabase::username);
+        registry.add("spring.datasource.password", TestDatabase::password);
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    private static synchronized String url() {
+        if (url == null) {
+            url = TestDatabase.create("fapp_test");
+        }
+        return url;
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class StatementCounting {
+
+        // Wraps whichever data source the application configured (plain, routing or sharded)
+        @Bean
+        static BeanPostProcessor statementCountingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                        return new StatementCountingDataSource(dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.financialapp.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+/** Rows the integration tests build on */
+public final class TestData {
+
+    /** The user the controllers act for until user ids come from the JWT */
+    public static final long USER_ID = 23L;
+
+    private TestData() {
+    }
+
+    public static void ensureUser(JdbcTemplate jdbcTemplate, long userId) {
+        jdbcTemplate.update("INSERT INTO users (id, email, username, password, role) VALUES (?, ?, ?, ?, 'USER') "
+                        + "ON CONFLICT (id) DO NOTHING",
+                userId, email(userId), "user" + userId,
+                "$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi");
+    }
+
+    public static String email(long userId) {
+        return "user" + userId + "@example.com";
+    }
+
+    /** @return the id of a new account of {@code userId} */
+    public static long createAccount(JdbcTemplate jdbcTemplate, long userId, String currency, BigDecimal balance) {
+        ensureUser(jdbcTemplate, userId);
+        return jdbcTemplate.queryForObject("INSERT INTO accounts (user_id, name, type, currency, balance) "
+                + "VALUES (?, 'Test', 'CHECKING', ?, ?) RETURNING id", Long.class, userId, currency, balance);
+    }
+}
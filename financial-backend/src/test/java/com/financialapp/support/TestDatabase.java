@@ -0,0 +1,99 @@
+package com.financialapp.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL for the integration tests. An embedded server is started once
+ * per JVM, unless {@code -Dtest.postgres.url=jdbc:postgresql://host:port/}
+ * points the tests at an existing server. Each database is created empty
+ * and loaded with {@code setup-database.sql}, so the tests run against the
+ * schema that ships.
+ */
+public final class TestDatabase {
+
+    private static final String URL = System.getProperty("test.postgres.url");
+
+    private static final String USERNAME = System.getProperty("test.postgres.username", "postgres");
+
+    private static final String PASSWORD = System.getProperty("test.postgres.password", "password");
+
+    private static EmbeddedPostgres embedded;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * @return why no server can be had, or null. PostgreSQL refuses to run
+     * as root, so the embedded server needs a regular user.
+     */
+    public static String unavailableReason() {
+        if (URL == null && "root".equals(System.getProperty("user.name"))) {
+            return "embedded PostgreSQL cannot run as root; set -Dtest.postgres.url to use an existing server";
+        }
+        return null;
+    }
+
+    public static String username() {
+        return USERNAME;
+    }
+
+    public static String password() {
+        return PASSWORD;
+    }
+
+    /** Drops and recreates {@code name} with the shipped schema, and returns its JDBC URL */
+    public static synchronized String create(String name) {
+        String serverUrl = serverUrl();
+        try (Connection connection = DriverManager.getConnection(serverUrl + "postgres", USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + name + " WITH (FORCE)");
+            statement.execute("CREATE DATABASE " + name);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create test database " + name, e);
+        }
+
+        String url = serverUrl + name;
+        try (Connection connection = DriverManager.getConnection(url, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute(schema());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not load setup-database.sql into " + name, e);
+        }
+        return url;
+    }
+
+    private static String serverUrl() {
+        if (URL != null) {
+            return URL.endsWith("/") ? URL : URL + "/";
+        }
+        if (embedded == null) {
+            try {
+                embedded = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+        }
+        return "jdbc:postgresql://localhost:" + embedded.getPort() + "/";
+    }
+
+    // The script without its psql-only lines, which create and switch to the database
+    private static String schema() {
+        try {
+            return Files.readAllLines(Path.of("setup-database.sql")).stream()
+                    .filter(line -> !line.startsWith("CREATE DATABASE") && !line.startsWith("\\c"))
+                    .collect(Collectors.joining("\n"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
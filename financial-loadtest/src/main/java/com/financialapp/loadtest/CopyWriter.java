@@ -0,0 +1,66 @@
+package com.financialapp.loadtest;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Streams rows into a COPY ... FROM STDIN in text format, flushing in
+ * fixed-size chunks so that generating millions of rows never holds more
+ * than one chunk in memory. Values must not contain tabs, newlines or
+ * backslashes.
+ */
+class CopyWriter implements AutoCloseable {
+
+    private static final int FLUSH_BYTES = 1 << 16;
+
+    private final CopyIn copyIn;
+
+    private final StringBuilder buffer = new StringBuilder(FLUSH_BYTES + 1024);
+
+    private long rows;
+
+    CopyWriter(CopyManager copyManager, String sql) throws SQLException {
+        this.copyIn = copyManager.copyIn(sql);
+    }
+
+    void row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            buffer.append(values[i] == null ? "\\N" : values[i].toString());
+        }
+        buffer.append('\n');
+        rows++;
+        if (buffer.length() >= FLUSH_BYTES) {
+            flush();
+        }
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!copyIn.isActive()) {
+            return;
+        }
+        try {
+            flush();
+            copyIn.endCopy();
+        } catch (SQLException e) {
+            copyIn.cancelCopy();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.financialapp.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static com.financialapp.loadtest.LoadTestMain.longOption;
+import static com.financialapp.loadtest.LoadTestMain.option;
+
+/**
+ * Bulk-loads a synthetic dataset through COPY: users, their accounts, a
+ * year of card-style transactions and transfers between own accounts.
+ * Activity is skewed so that a few users are much heavier than the median,
+ * like real account histories. Runs are reproducible for a given --seed.
+ */
+class DataGenerator {
+
+    /** bcrypt of "password", the same hash as the seed user in setup-database.sql */
+    static final String PASSWORD_HASH = "$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi";
+
+    static final String EMAIL_FORMAT = "loadtest-%d@example.com";
+
+    private static final String[] ACCOUNT_TYPES = {"CHECKING", "SAVINGS", "CREDIT"};
+
+    private static final String[][] MERCHANTS = {
+            {"Transport", "Uber trip"}, {"Transport", "Careem ride"}, {"Transport", "Metro card top-up"},
+            {"Groceries", "Carrefour"}, {"Groceries", "Spinneys"}, {"Groceries", "Gourmet Egypt"},
+            {"Dining", "Starbucks"}, {"Dining", "McDonald's"}, {"Dining", "Talabat order"},
+            {"Entertainment", "Netflix subscription"}, {"Entertainment", "Spotify"}, {"Entertainment", "Cinema tickets"},
+            {"Utilities", "Electricity bill"}, {"Utilities", "Vodafone recharge"}, {"Utilities", "Internet bill"},
+            {"Shopping", "Amazon.eg"}, {"Shopping", "Noon"}, {"Health", "Pharmacy"},
+    };
+
+    private static final Duration HISTORY = Duration.ofDays(365);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long users;
+    private final int accountsPerUser;
+    private final long transactionsPerUser;
+    private final long transfersPerUser;
+    private final long seed;
+
+    DataGenerator(Map<String, String> options) {
+        this.url = option(options, "jdbc-url", "jdbc:postgresql://localhost:5432/fapp");
+        this.username = option(options, "db-user", "postgres");
+        this.password = option(options, "db-password", "password");
+        this.users = longOption(options, "users", 10_000);
+        this.accountsPerUser = (int) longOption(options, "accounts-per-user", 3);
+        this.transactionsPerUser = longOption(options, "transactions-per-user", 100);
+        this.transfersPerUser = longOption(options, "transfers-per-user", 10);
+        this.seed = longOption(options, "seed", 42);
+    }
+
+    void generate() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            connection.setAutoCommit(false);
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+            long firstUserId = nextId(connection, "users");
+            long firstAccountId = nextId(connection, "accounts");
+            Instant now = Instant.now();
+
+            timed(connection, "users", () -> copyUsers(copyManager, firstUserId, now));
+            timed(connection, "accounts", () -> copyAccounts(copyManager, firstUserId, firstAccountId, now));
+            timed(connection, "transactions", () -> copyTransactions(copyManager, firstUserId, firstAccountId, now));
+            timed(connection, "transfers", () -> copyTransfers(copyManager, firstUserId, firstAccountId, now));
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setval('users_id_seq', (SELECT MAX(id) FROM users))");
+                statement.execute("SELECT setval('accounts_id_seq', (SELECT MAX(id) FROM accounts))");
+                statement.execute("ANALYZE");
+            }
+            connection.commit();
+
+            System.out.printf("Generated users %d..%d, sign in as " + EMAIL_FORMAT + " / password%n",
+                    firstUserId, firstUserId + users - 1, firstUserId);
+            System.out.printf("Pass --login-users-from=%d --login-users=%d to the run command%n", firstUserId, users);
+        }
+    }
+
+    private long copyUsers(CopyManager copyManager, long firstUserId, Instant now) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (CopyWriter writer = new CopyWriter(copyManager,
+                "COPY users (id, email, username, password, phone_number, created_at, updated_at, role) FROM STDIN")) {
+            for (long id = firstUserId; id < firstUserId + users; id++) {
+                Timestamp createdAt = randomTime(random, now);
+                writer.row(id, String.format(EMAIL_FORMAT, id), "user" + id, PASSWORD_HASH,
+                        "+2010" + (10_000_000 + random.nextInt(90_000_000)), createdAt, createdAt, "USER");
+            }
+            return writer.getRows();
+        }
+    }
+
+    private long copyAccounts(CopyManager copyManager, long firstUserId, long firstAccountId, Instant now)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        try (CopyWriter writer = new CopyWriter(copyManager,
+                "COPY accounts (id, user_id, name, type, currency, balance, created_at) FROM STDIN")) {
+            for (long u = 0; u < users; u++) {
+                for (int a = 0; a < accountsPerUser; a++) {
+                    String type = ACCOUNT_TYPES[a % ACCOUNT_TYPES.length];
+                    String currency = random.nextInt(10) == 0 ? "USD" : "EGP";
+                    writer.row(accountId(firstAccountId, u, a), firstUserId + u, type.charAt(0) + type.substring(1).toLowerCase(),
+                            type, currency, amount(random, 5000, 1.0), randomTime(random, now));
+                }
+            }
+            return writer.getRows();
+        }
+    }
+
+    private long copyTransactions(CopyManager copyManager, long firstUserId, long firstAccountId, Instant now)
+            throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        try (CopyWriter writer = new CopyWriter(copyManager,
+                "COPY transactions (user_id, account_id, txn_type, category, amount, description, occurred_at) FROM STDIN")) {
+            for (long u = 0; u < users; u++) {
+                long count = skewed(random, transactionsPerUser);
+                for (long t = 0; t < count; t++) {
+                    long accountId = accountId(firstAccountId, u, random.nextInt(accountsPerUser));
+                    if (random.nextInt(8) == 0) {
+                        writer.row(firstUserId + u, accountId, "CREDIT", "Income", amount(random, 3000, 0.5),
+                                "Salary", randomTime(random, now));
+                    } else {
+                        String[] merchant = MERCHANTS[random.nextInt(MERCHANTS.length)];
+                        writer.row(firstUserId + u, accountId, "DEBIT", merchant[0], amount(random, 150, 1.0),
+                                merchant[1], randomTime(random, now));
+                    }
+                }
+            }
+            return writer.getRows();
+        }
+    }
+
+    private long copyTransfers(CopyManager copyManager, long firstUserId, long firstAccountId, Instant now)
+            throws SQLException {
+        if (accountsPerUser < 2) {
+            return 0;
+        }
+        SplittableRandom random = new SplittableRandom(seed + 3);
+        try (CopyWriter writer = new CopyWriter(copyManager,
+                "COPY transfers (user_id, from_account_id, to_account_id, amount, description, status, created_at) FROM STDIN")) {
+            for (long u = 0; u < users; u++) {
+                long count = skewed(random, transfersPerUser);
+                for (long t = 0; t < count; t++) {
+                    int from = random.nextInt(accountsPerUser);
+                    int to = (from + 1 + random.nextInt(accountsPerUser - 1)) % accountsPerUser;
+                    writer.row(firstUserId + u, accountId(firstAccountId, u, from), accountId(firstAccountId, u, to),
+                            amount(random, 500, 1.0), "Own transfer", "COMPLETED", randomTime(random, now));
+                }
+            }
+            return writer.getRows();
+        }
+    }
+
+    private long accountId(long firstAccountId, long userIndex, int accountIndex) {
+        return firstAccountId + userIndex * accountsPerUser + accountIndex;
+    }
+
+    /** Exponentially distributed around the mean: most users are light, a few are heavy */
+    private static long skewed(SplittableRandom random, long mean) {
+        return Math.round(-Math.log(1.0 - random.nextDouble()) * mean);
+    }
+
+    /** Log-normal amount with the given median */
+    private static BigDecimal amount(SplittableRandom random, double median, double sigma) {
+        double value = median * Math.exp(sigma * gaussian(random));
+        return BigDecimal.valueOf(Math.max(0.01, Math.min(value, 1_000_000))).setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    private static Timestamp randomTime(SplittableRandom random, Instant now) {
+        return Timestamp.from(now.minusMillis(random.nextLong(HISTORY.toMillis())));
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void timed(Connection connection, String table, CopyStep step) throws SQLException {
+        long start = System.nanoTime();
+        long rows = step.run();
+        connection.commit();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-12s %,12d rows in %6.1f s (%,.0f rows/s)%n", table, rows, seconds, rows / seconds);
+    }
+
+    @FunctionalInterface
+    private interface CopyStep {
+        long run() throws SQLException;
+    }
+}
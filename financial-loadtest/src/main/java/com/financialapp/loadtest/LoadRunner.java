@@ -0,0 +1,343 @@
+package com.financialapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.financialapp.loadtest.LoadTestMain.longOption;
+import static com.financialapp.loadtest.LoadTestMain.option;
+
+/**
+ * Drives a weighted mix of scenarios from many concurrent virtual users
+ * and records latencies per scenario in HDR histograms.
+ * <p>
+ * Without --rate every user sends its next request as soon as the previous
+ * one returns (closed model). With --rate the users share a fixed schedule
+ * and latency is measured from each request's intended start. A stalled
+ * server then shows up in the percentiles instead of just lowering the
+ * request count (coordinated omission).
+ */
+class LoadRunner {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final int virtualUsers;
+    private final Duration duration;
+    private final Duration warmup;
+    private final double rate;
+    private final Map<Scenario, Integer> mix;
+    private final Path outputDir;
+    private final Scenario.Context context;
+
+    private final Map<Scenario, Stats> stats = new EnumMap<>(Scenario.class);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Renews the access token before it expires, so long runs don't turn into 401s
+    private final ScheduledExecutorService tokenRenewal = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile String refreshToken;
+
+    LoadRunner(Map<String, String> options) {
+        this.virtualUsers = (int) longOption(options, "virtual-users", 100);
+        this.duration = Duration.ofSeconds(longOption(options, "duration", 60));
+        this.warmup = Duration.ofSeconds(longOption(options, "warmup", 10));
+        this.rate = Double.parseDouble(option(options, "rate", "0"));
+        this.mix = parseMix(option(options, "mix", "signin:1,dashboard:4,transactions:4,transfer:1"));
+        this.outputDir = Path.of(option(options, "output", "target/loadtest"));
+        this.context = new Scenario.Context(
+                option(options, "base-url", "http://localhost:8080/api"),
+                option(options, "login-email", "test@example.com"),
+                option(options, "login-password", "password"),
+                longOption(options, "login-users-from", 0),
+                longOption(options, "login-users", 0));
+        for (Scenario scenario : mix.keySet()) {
+            stats.put(scenario, new Stats());
+        }
+    }
+
+    void run() throws Exception {
+        prepare();
+
+        Scenario[] wheel = buildWheel();
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long recordFromNanos = startNanos + warmup.toNanos();
+        long endNanos = recordFromNanos + duration.toNanos();
+        long intervalNanos = rate > 0 ? (long) (virtualUsers * 1e9 / rate) : 0;
+
+        System.out.printf("Running %d virtual users for %ds (+%ds warm-up) on %s threads, %s%n",
+                virtualUsers, duration.toSeconds(), warmup.toSeconds(),
+                VirtualThreads.available() ? "virtual" : "platform",
+                rate > 0 ? String.format("%.0f requests/s", rate) : "closed loop");
+
+        try (Workers workers = new Workers(VirtualThreads.newExecutor(virtualUsers))) {
+            for (int i = 0; i < virtualUsers; i++) {
+                long offset = intervalNanos * i / virtualUsers;
+                workers.executor.execute(() -> virtualUser(wheel, startNanos + offset, intervalNanos,
+                        recordFromNanos, endNanos));
+            }
+        } finally {
+            tokenRenewal.shutdownNow();
+        }
+
+        report(Duration.ofNanos(endNanos - recordFromNanos));
+    }
+
+    private void virtualUser(Scenario[] wheel, long firstStart, long intervalNanos, long recordFrom, long end) {
+        long intended = firstStart;
+        while (true) {
+            long now = System.nanoTime();
+            if (intervalNanos > 0 && intended > now) {
+                LockSupport.parkNanos(intended - now);
+            } else if (intervalNanos == 0) {
+                intended = now;
+            }
+            if (intended >= end) {
+                return;
+            }
+
+            Scenario scenario = wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+            String token = context.token;
+            int status;
+            try {
+                status = client.send(scenario.request(context), HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 401 && token != null && scenario != Scenario.SIGNIN) {
+                    // Expired or revoked despite the scheduled renewal, e.g. after a server restart
+                    renewToken(token);
+                }
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long finished = System.nanoTime();
+
+            if (intended >= recordFrom) {
+                stats.get(scenario).record(status, TimeUnit.NANOSECONDS.toMicros(finished - intended));
+            }
+            intended += intervalNanos;
+        }
+    }
+
+    /** Signs in for a bearer token and looks up the accounts the transfer scenario uses. */
+    private void prepare() throws Exception {
+        if (!signIn()) {
+            System.out.println("Sign-in failed, continuing without a token");
+        }
+
+        if (mix.containsKey(Scenario.TRANSFER)) {
+            HttpResponse<String> accounts = client.send(context.builder("/accounts").GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            List<Long> ids = new ArrayList<>();
+            for (JsonNode account : objectMapper.readTree(accounts.body())) {
+                ids.add(account.path("id").asLong());
+            }
+            if (ids.size() < 2) {
+                throw new IllegalStateException("Transfer scenario needs at least two accounts, found " + ids.size());
+            }
+            context.transferAccounts = List.copyOf(ids);
+        }
+    }
+
+    private boolean signIn() throws IOException, InterruptedException {
+        HttpResponse<String> signin = client.send(Scenario.SIGNIN.request(context), HttpResponse.BodyHandlers.ofString());
+        return signin.statusCode() == 200 && acceptTokens(signin.body());
+    }
+
+    /**
+     * Replaces {@code staleToken} with a new access token, through the
+     * refresh token if it is still good and a new sign-in otherwise. Only one
+     * caller renews a given token: refresh tokens rotate, and presenting one
+     * twice would revoke the whole sign-in.
+     */
+    private synchronized void renewToken(String staleToken) {
+        if (!staleToken.equals(context.token)) {
+            return;
+        }
+        try {
+            if (refreshToken != null) {
+                HttpRequest request = context.builder("/auth/refresh")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))))
+                        .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && acceptTokens(response.body())) {
+                    return;
+                }
+            }
+            if (!signIn()) {
+                System.out.println("Token renewal failed, requests may be rejected with 401");
+            }
+        } catch (IOException e) {
+            System.out.println("Token renewal failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Takes the tokens from a sign-in or refresh response and schedules the next renewal
+    private boolean acceptTokens(String body) throws IOException {
+        JsonNode response = objectMapper.readTree(body);
+        String token = response.path("token").asText(null);
+        if (token == null) {
+            return false;
+        }
+        context.token = token;
+        refreshToken = response.path("refreshToken").asText(null);
+        long expiresIn = response.path("expiresIn").asLong(0);
+        if (expiresIn > 0 && !tokenRenewal.isShutdown()) {
+            // At 80% of the token's lifetime, leaving time to retry with a new sign-in
+            tokenRenewal.schedule(() -> renewToken(token), expiresIn * 800, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    private void report(Duration measured) throws IOException {
+        Files.createDirectories(outputDir);
+        double seconds = measured.toNanos() / 1e9;
+
+        System.out.printf("%n%-13s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "req/s", "4xx", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Scenario, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            Histogram histogram = s.latencyMicros;
+            long count = histogram.getTotalCount();
+            System.out.printf("%-13s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(), count, count / seconds,
+                    s.clientErrors.sum(), s.errors.sum(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+
+            Path file = outputDir.resolve(entry.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("\nPercentile distributions (ms) written to " + outputDir);
+    }
+
+    /** Expands the weights into a lookup table so picking a scenario is one random index */
+    private Scenario[] buildWheel() {
+        List<Scenario> wheel = new ArrayList<>();
+        mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(scenario);
+            }
+        });
+        return wheel.toArray(new Scenario[0]);
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+            if (weight > 0) {
+                mix.put(Scenario.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty scenario mix: " + value);
+        }
+        return mix;
+    }
+
+    private static class Stats {
+
+        final Histogram latencyMicros = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        void record(int status, long micros) {
+            latencyMicros.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if (status >= 400 && status < 500) {
+                clientErrors.increment();
+            } else if (status < 200 || status >= 500) {
+                errors.increment();
+            }
+        }
+    }
+
+    /** Waits for every virtual user to finish when closed */
+    private record Workers(ExecutorService executor) implements AutoCloseable {
+
+        @Override
+        public void close() throws InterruptedException {
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.out.println("Waiting for in-flight requests...");
+            }
+        }
+    }
+
+    /**
+     * Uses virtual threads when the JVM has them (21+) and falls back to a
+     * platform thread per virtual user on older JVMs, so the module still
+     * builds for the backend's Java 17 baseline.
+     */
+    static final class VirtualThreads {
+
+        private static final Method FACTORY = lookup();
+
+        private VirtualThreads() {
+        }
+
+        static boolean available() {
+            return FACTORY != null;
+        }
+
+        static ExecutorService newExecutor(int platformThreads) {
+            if (FACTORY != null) {
+                try {
+                    return (ExecutorService) FACTORY.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Could not create virtual thread executor", e);
+                }
+            }
+            return Executors.newFixedThreadPool(platformThreads);
+        }
+
+        private static Method lookup() {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+}
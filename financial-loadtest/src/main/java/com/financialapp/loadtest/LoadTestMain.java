@@ -0,0 +1,59 @@
+package com.financialapp.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entry point for the load-test tooling.
+ *
+ * <pre>
+ * java -jar financial-loadtest.jar generate --users=100000 --transactions-per-user=50
+ * java -jar financial-loadtest.jar run --virtual-users=200 --duration=120 --mix=dashboard:4,transactions:4,transfer:1,signin:1
+ * </pre>
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+
+        Map<String, String> options = parseOptions(args);
+        switch (args[0]) {
+            case "generate" -> new DataGenerator(options).generate();
+            case "run" -> new LoadRunner(options).run();
+            default -> usage();
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    static String option(Map<String, String> options, String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    static long longOption(Map<String, String> options, String name, long defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    private static void usage() {
+        System.out.println("usage: financial-loadtest generate|run [--option=value ...]  (see README.md)");
+    }
+}
@@ -0,0 +1,93 @@
+package com.financialapp.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The mobile app flows from FinancialApp/src/services/api.ts, one HTTP
+ * request each.
+ */
+enum Scenario {
+
+    SIGNIN {
+        @Override
+        HttpRequest request(Context context) {
+            String email = context.randomLoginEmail();
+            return context.builder("/auth/signin")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"email\":\"" + email + "\",\"password\":\"" + context.loginPassword + "\"}"))
+                    .build();
+        }
+    },
+
+    DASHBOARD {
+        @Override
+        HttpRequest request(Context context) {
+            return context.builder("/dashboard").GET().build();
+        }
+    },
+
+    TRANSACTIONS {
+        @Override
+        HttpRequest request(Context context) {
+            return context.builder("/transactions").GET().build();
+        }
+    },
+
+    TRANSFER {
+        @Override
+        HttpRequest request(Context context) {
+            List<Long> accounts = context.transferAccounts;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int from = random.nextInt(accounts.size());
+            int to = (from + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+            return context.builder("/transfers")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"fromAccountId\":" + accounts.get(from) + ",\"toAccountId\":" + accounts.get(to)
+                                    + ",\"amount\":1.00,\"description\":\"Load test\"}"))
+                    .build();
+        }
+    };
+
+    abstract HttpRequest request(Context context);
+
+    /** Shared, read-only state the scenarios build requests from */
+    static class Context {
+
+        final String baseUrl;
+        final String loginPassword;
+        final long loginUsersFrom;
+        final long loginUsers;
+        final String fallbackEmail;
+        volatile String token;
+        volatile List<Long> transferAccounts = List.of();
+
+        Context(String baseUrl, String fallbackEmail, String loginPassword, long loginUsersFrom, long loginUsers) {
+            this.baseUrl = baseUrl;
+            this.fallbackEmail = fallbackEmail;
+            this.loginPassword = loginPassword;
+            this.loginUsersFrom = loginUsersFrom;
+            this.loginUsers = loginUsers;
+        }
+
+        HttpRequest.Builder builder(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json");
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+
+        String randomLoginEmail() {
+            if (loginUsers <= 0) {
+                return fallbackEmail;
+            }
+            long id = loginUsersFrom + ThreadLocalRandom.current().nextLong(loginUsers);
+            return String.format(DataGenerator.EMAIL_FORMAT, id);
+        }
+    }
+}